@@ -9,13 +9,58 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    // The vectorized bm25+ scorer uses the incubating Vector API, it is compiled apart so only it needs the module.
+    create("vector") {
+        compileClasspath += sourceSets.main.get().output
+    }
+    test {
+        runtimeClasspath += sourceSets["vector"].output
+    }
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output + sourceSets["vector"].output
+    }
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.testng:testng:7.1.0")
     testImplementation("junit:junit:4.13.1")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// The Vector API has to be added to the module graph explicitly, without it the scalar scorer is used.
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.named<JavaCompile>("compileVectorJava") {
+    options.compilerArgs.addAll(vectorModule)
+}
+
+tasks.jar {
+    from(sourceSets["vector"].output)
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    jvmArgs(vectorModule)
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler, pass JMH options with --args."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    jvmArgs(vectorModule)
+    args("-prof", "gc")
+}
+
+tasks.register<JavaExec>("contentionBenchmark") {
+    group = "benchmark"
+    description = "Measures the query and indexing throughput of Bm25Plus under a lock and of ConcurrentBm25Plus."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("dev.nuculabs.dsa.ranking.ContentionBenchmark")
+}
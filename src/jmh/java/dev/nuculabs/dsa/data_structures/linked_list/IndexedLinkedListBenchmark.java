@@ -0,0 +1,57 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IndexedLinkedListBenchmark measures the positional operations of {@link IndexedLinkedList} with the parameters of
+ * {@link LinkedListBenchmark}, so the results of both compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexedLinkedListBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double position;
+
+    private IndexedLinkedList<Integer> list;
+    private int index;
+
+    @Setup
+    public void setup() {
+        list = IndexedLinkedList.emptyList();
+        for (int i = 0; i < size; i++) {
+            list.append(i);
+        }
+        index = Math.min(size - 1, (int) (position * size));
+    }
+
+    @Benchmark
+    public Optional<Integer> get() {
+        return list.get(index);
+    }
+
+    /**
+     * Inserts an element and deletes it again, so the list keeps its size across invocations.
+     */
+    @Benchmark
+    public IndexedLinkedList<Integer> insertAndDelete() {
+        list.insert(-1, index);
+        list.delete(index);
+        return list;
+    }
+
+    @Benchmark
+    public IndexedLinkedList<Integer> reverse() {
+        list.reverse();
+        return list;
+    }
+}
@@ -0,0 +1,51 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LinkedListBenchmark measures the positional operations of {@link LinkedList} for different list sizes and
+ * positions. The position is given relative to the size: 0 is the head, 0.5 the middle and 1 the tail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkedListBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double position;
+
+    private LinkedList<Integer> list;
+    private int index;
+
+    @Setup
+    public void setup() {
+        list = LinkedList.emptyList();
+        for (int i = 0; i < size; i++) {
+            list.append(i);
+        }
+        index = Math.min(size - 1, (int) (position * size));
+    }
+
+    @Benchmark
+    public Optional<Node<Integer>> get() {
+        return list.get(index);
+    }
+
+    /**
+     * Inserts an element and deletes it again, so the list keeps its size across invocations.
+     */
+    @Benchmark
+    public LinkedList<Integer> insertAndDelete() {
+        list.insert(-1, index);
+        list.delete(index);
+        return list;
+    }
+}
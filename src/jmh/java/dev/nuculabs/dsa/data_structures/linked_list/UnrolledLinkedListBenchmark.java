@@ -0,0 +1,89 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UnrolledLinkedListBenchmark compares the traversal and the footprint of {@link UnrolledLinkedList} and
+ * {@link LinkedList}.
+ * <p>
+ * The build benchmarks append all the elements to a new list, run them with -prof gc and divide gc.alloc.rate.norm by
+ * the size to get the bytes allocated per element. The elements are preallocated, so only the list structure counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnrolledLinkedListBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] elements;
+    private LinkedList<Integer> linkedList;
+    private UnrolledLinkedList<Integer> unrolledList;
+
+    @Setup
+    public void setup() {
+        elements = new Integer[size];
+        linkedList = LinkedList.emptyList();
+        unrolledList = UnrolledLinkedList.emptyList();
+        for (int i = 0; i < size; i++) {
+            elements[i] = i;
+            linkedList.append(elements[i]);
+            unrolledList.append(elements[i]);
+        }
+    }
+
+    @Benchmark
+    public void linkedListIterate(Blackhole blackhole) {
+        for (Integer element : linkedList) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public void unrolledIterate(Blackhole blackhole) {
+        for (Integer element : unrolledList) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public Integer[] linkedListToArray() {
+        return linkedList.toArray();
+    }
+
+    @Benchmark
+    public Integer[] unrolledToArray() {
+        return unrolledList.toArray();
+    }
+
+    @Benchmark
+    public LinkedList<Integer> linkedListBuild() {
+        LinkedList<Integer> list = LinkedList.emptyList();
+        for (Integer element : elements) {
+            list.append(element);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public UnrolledLinkedList<Integer> unrolledBuild() {
+        UnrolledLinkedList<Integer> list = UnrolledLinkedList.emptyList();
+        for (Integer element : elements) {
+            list.append(element);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public UnrolledLinkedList<Integer> unrolledInsertAndDelete() {
+        unrolledList.insert(-1, size / 2);
+        unrolledList.delete(size / 2);
+        return unrolledList;
+    }
+}
@@ -0,0 +1,61 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConcurrentSetBenchmark measures the throughput of {@link ConcurrentSet} and of
+ * {@code ConcurrentHashMap.newKeySet()} with several threads inserting and looking up at once.
+ * <p>
+ * Every invocation inserts a random element from a key space twice the size of the pre-filled set, so about half the
+ * inserts add a new element, and looks up another one. Change the number of threads with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ConcurrentSetBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Integer[] keys;
+    private ConcurrentSet<Integer> concurrentSet;
+    private java.util.Set<Integer> keySet;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        keys = new Integer[size * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 31;
+        }
+        concurrentSet = ConcurrentSet.construct();
+        keySet = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < size; i++) {
+            concurrentSet.insert(keys[i * 2]);
+            keySet.add(keys[i * 2]);
+        }
+    }
+
+    @Benchmark
+    public boolean concurrentSet(ThreadState state) {
+        concurrentSet.insert(keys[state.random.nextInt(keys.length)]);
+        return concurrentSet.contains(keys[state.random.nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    public boolean concurrentHashMapKeySet(ThreadState state) {
+        keySet.add(keys[state.random.nextInt(keys.length)]);
+        return keySet.contains(keys[state.random.nextInt(keys.length)]);
+    }
+}
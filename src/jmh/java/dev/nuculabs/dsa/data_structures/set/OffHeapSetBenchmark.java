@@ -0,0 +1,65 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OffHeapSetBenchmark compares the lookups of an {@link OffHeapSet} of longs with those of the on-heap
+ * {@link LongSet}. Run it with -prof gc to compare the heap footprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OffHeapSetBenchmark {
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private long[] keys;
+    private OffHeapSet offHeapSet;
+    private LongSet longSet;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        keys = new long[size];
+        offHeapSet = OffHeapSet.allocate(Long.BYTES, size);
+        longSet = LongSet.of(size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextLong();
+            offHeapSet.insert(keys[i]);
+            longSet.insert(keys[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        offHeapSet.close();
+    }
+
+    private int nextIndex() {
+        next = next + 1 == size ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public boolean offHeapContainsHit() {
+        return offHeapSet.contains(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean offHeapContainsMiss() {
+        return offHeapSet.contains(keys[nextIndex()] + 1);
+    }
+
+    @Benchmark
+    public boolean longSetContainsHit() {
+        return longSet.contains(keys[nextIndex()]);
+    }
+}
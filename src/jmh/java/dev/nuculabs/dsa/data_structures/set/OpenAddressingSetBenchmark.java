@@ -0,0 +1,113 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAddressingSetBenchmark compares {@link OpenAddressingSet}, {@link IntSet}, the default {@link Set} and
+ * {@link HashSet} on lookups and on building a set from its default size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenAddressingSetBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] elements;
+    private Integer[] boxedElements;
+    private Integer[] missingElements;
+    private Set<Integer> chainedSet;
+    private OpenAddressingSet<Integer> openAddressingSet;
+    private IntSet intSet;
+    private HashSet<Integer> hashSet;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        elements = new int[size];
+        boxedElements = new Integer[size];
+        missingElements = new Integer[size];
+        chainedSet = Set.construct();
+        openAddressingSet = OpenAddressingSet.construct();
+        intSet = IntSet.construct();
+        hashSet = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            // The even numbers are inserted, the odd ones are missing.
+            elements[i] = random.nextInt(Integer.MAX_VALUE / 2) * 2;
+            boxedElements[i] = elements[i];
+            missingElements[i] = elements[i] + 1;
+            chainedSet.insert(boxedElements[i]);
+            openAddressingSet.insert(boxedElements[i]);
+            intSet.insert(elements[i]);
+            hashSet.add(boxedElements[i]);
+        }
+    }
+
+    private int nextIndex() {
+        next = next + 1 == size ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public boolean chainedContainsHit() {
+        return chainedSet.contains(boxedElements[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean openAddressingContainsHit() {
+        return openAddressingSet.contains(boxedElements[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean openAddressingContainsMiss() {
+        return openAddressingSet.contains(missingElements[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean intSetContainsHit() {
+        return intSet.contains(elements[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean hashSetContainsHit() {
+        return hashSet.contains(boxedElements[nextIndex()]);
+    }
+
+    /**
+     * Builds a set of all the elements starting from the default capacity, the time is per set.
+     */
+    @Benchmark
+    public OpenAddressingSet<Integer> openAddressingInsert() {
+        OpenAddressingSet<Integer> set = OpenAddressingSet.construct();
+        for (Integer element : boxedElements) {
+            set.insert(element);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public IntSet intSetInsert() {
+        IntSet set = IntSet.construct();
+        for (int element : elements) {
+            set.insert(element);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public HashSet<Integer> hashSetInsert() {
+        HashSet<Integer> set = new HashSet<>();
+        for (Integer element : boxedElements) {
+            set.add(element);
+        }
+        return set;
+    }
+}
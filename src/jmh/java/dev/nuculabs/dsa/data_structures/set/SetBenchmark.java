@@ -0,0 +1,88 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SetBenchmark measures {@link Set#insert} and {@link Set#contains} for different sizes and load factors.
+ * <p>
+ * The load factor is the number of elements per bucket the set ends up with, the capacity is size / loadFactor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SetBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.5", "1.0", "4.0"})
+    public double loadFactor;
+
+    private int capacity;
+    private Integer[] elements;
+    private Integer[] missingElements;
+    private Set<Integer> set;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        capacity = Math.max(1, (int) (size / loadFactor));
+        elements = new Integer[size];
+        missingElements = new Integer[size];
+        set = Set.of(capacity);
+        for (int i = 0; i < size; i++) {
+            // The even numbers are inserted, the odd ones are missing.
+            elements[i] = random.nextInt(Integer.MAX_VALUE / 2) * 2;
+            missingElements[i] = elements[i] + 1;
+            set.insert(elements[i]);
+        }
+    }
+
+    /**
+     * Builds a set of all the elements, the time is per set and not per element.
+     */
+    @Benchmark
+    public Set<Integer> insert() {
+        Set<Integer> newSet = Set.of(capacity);
+        for (Integer element : elements) {
+            newSet.insert(element);
+        }
+        return newSet;
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        next = next + 1 == size ? 0 : next + 1;
+        return set.contains(elements[next]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        next = next + 1 == size ? 0 : next + 1;
+        return set.contains(missingElements[next]);
+    }
+
+    @Benchmark
+    public void getValues(Blackhole blackhole) {
+        blackhole.consume(set.getValues());
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Integer element : set) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public long parallelStreamSum() {
+        return set.stream().parallel().mapToLong(Integer::longValue).sum();
+    }
+}
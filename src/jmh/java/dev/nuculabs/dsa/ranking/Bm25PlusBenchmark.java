@@ -0,0 +1,60 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bm25PlusBenchmark measures the queries of {@link Bm25Plus} over a Zipfian corpus.
+ * <p>
+ * Every invocation runs the next query of a fixed, pre-generated sequence, so the results average over frequent and
+ * rare terms alike.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Bm25PlusBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int corpusSize;
+
+    @Param({"1", "2", "4"})
+    public int termCount;
+
+    private Bm25Plus bm25Plus;
+    private String[][] queries;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        ZipfianCorpus corpus = new ZipfianCorpus(42);
+        bm25Plus = new Bm25Plus();
+        bm25Plus.indexAll(corpus.documents(corpusSize).toArray(Document[]::new));
+        queries = new String[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = corpus.query(termCount);
+        }
+    }
+
+    private String[] nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public List<?> termsQuery() {
+        return bm25Plus.termsQuery(nextQuery());
+    }
+
+    @Benchmark
+    public List<?> topK() {
+        return bm25Plus.topK(10, nextQuery());
+    }
+}
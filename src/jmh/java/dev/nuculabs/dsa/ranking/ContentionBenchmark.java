@@ -0,0 +1,103 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.ConcurrentBm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ContentionBenchmark measures how queries and indexing interfere with each other.
+ * <p>
+ * A writer thread indexes documents while reader threads run top-k queries, once against a {@link Bm25Plus} guarded
+ * by a single lock and once against a {@link ConcurrentBm25Plus}. It reports the query throughput, the query latency
+ * and the time the writer needed.
+ * <p>
+ * Usage: ContentionBenchmark [readers] [documents] [refreshInterval]
+ */
+public class ContentionBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int documents = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int refreshInterval = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        List<Document> corpus = new ZipfianCorpus(42).documents(documents);
+        List<Document> initial = corpus.subList(0, documents / 2);
+        List<Document> added = corpus.subList(documents / 2, documents);
+        System.out.printf("readers=%d documents=%d refreshInterval=%d%n", readers, documents, refreshInterval);
+
+        for (int round = 0; round < 2; round++) {
+            Bm25Plus locked = new Bm25Plus();
+            locked.indexAll(initial.toArray(Document[]::new));
+            run("locked Bm25Plus", readers, added,
+                    document -> {
+                        synchronized (locked) {
+                            locked.index(document);
+                        }
+                    },
+                    terms -> {
+                        synchronized (locked) {
+                            return locked.topK(10, terms).size();
+                        }
+                    });
+
+            ConcurrentBm25Plus concurrent = new ConcurrentBm25Plus(refreshInterval);
+            concurrent.indexAll(initial.toArray(Document[]::new));
+            concurrent.refresh();
+            run("ConcurrentBm25Plus", readers, added, concurrent::index, terms -> concurrent.topK(10, terms).size());
+        }
+    }
+
+    private static void run(String name, int readers, List<Document> documents, Consumer<Document> index,
+                            Function<String[], Integer> query) throws InterruptedException {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        LongAdder executedQueries = new LongAdder();
+        long[][] latencies = new long[readers][];
+
+        List<Thread> threads = new ArrayList<>();
+        for (int reader = 0; reader < readers; reader++) {
+            int readerIndex = reader;
+            threads.add(new Thread(() -> {
+                ZipfianCorpus queries = new ZipfianCorpus(readerIndex);
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                while (writing.get()) {
+                    String[] terms = queries.query(2);
+                    long start = System.nanoTime();
+                    query.apply(terms);
+                    samples[count++ & (samples.length - 1)] = System.nanoTime() - start;
+                    executedQueries.increment();
+                }
+                latencies[readerIndex] = Arrays.copyOf(samples, Math.min(count, samples.length));
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        long start = System.nanoTime();
+        documents.forEach(index);
+        long writeNanos = System.nanoTime() - start;
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-20s writer %6d ms | queries %8.0f/s | latency p50 %8.1f us p99 %8.1f us max %8.1f us%n",
+                name,
+                writeNanos / 1_000_000,
+                executedQueries.sum() / (writeNanos / 1e9),
+                percentile(all, 0.50) / 1e3,
+                percentile(all, 0.99) / 1e3,
+                all.length == 0 ? 0 : all[all.length - 1] / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)];
+    }
+}
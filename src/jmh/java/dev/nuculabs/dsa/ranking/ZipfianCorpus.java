@@ -0,0 +1,112 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ZipfianCorpus generates synthetic documents whose word frequencies follow Zipf's law, like natural text does: the
+ * word of rank r occurs with a probability proportional to 1 / r^exponent.
+ * <p>
+ * The words are named after their rank, "w0" is the most frequent one. The generator is seeded, the same parameters
+ * always generate the same corpus.
+ */
+public class ZipfianCorpus {
+    private final double[] cumulativeProbabilities;
+    private final int minDocumentLength;
+    private final int maxDocumentLength;
+    private final Random random;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param vocabularySize    - The number of distinct words.
+     * @param exponent          - The Zipf exponent, natural text is close to 1.
+     * @param minDocumentLength - The minimum number of words of a document.
+     * @param maxDocumentLength - The maximum number of words of a document.
+     * @param seed              - The seed of the generator.
+     */
+    public ZipfianCorpus(int vocabularySize, double exponent, int minDocumentLength, int maxDocumentLength, long seed) {
+        if (vocabularySize <= 0) {
+            throw new IllegalArgumentException("vocabulary size must be positive");
+        }
+        if (minDocumentLength <= 0 || maxDocumentLength < minDocumentLength) {
+            throw new IllegalArgumentException("invalid document lengths given");
+        }
+        this.cumulativeProbabilities = new double[vocabularySize];
+        double sum = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulativeProbabilities[rank] = sum;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulativeProbabilities[rank] /= sum;
+        }
+        this.minDocumentLength = minDocumentLength;
+        this.maxDocumentLength = maxDocumentLength;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Constructs a generator with a vocabulary of 50000 words, exponent 1 and documents of 10 to 100 words.
+     *
+     * @param seed - The seed of the generator.
+     */
+    public ZipfianCorpus(long seed) {
+        this(50_000, 1.0, 10, 100, seed);
+    }
+
+    /**
+     * Returns a word drawn from the Zipf distribution.
+     */
+    public String word() {
+        int rank = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        return "w" + (rank >= 0 ? rank : Math.min(-rank - 1, cumulativeProbabilities.length - 1));
+    }
+
+    /**
+     * Returns a document of random length.
+     *
+     * @param documentId - The document id.
+     */
+    public Document document(int documentId) {
+        int length = minDocumentLength + random.nextInt(maxDocumentLength - minDocumentLength + 1);
+        StringBuilder text = new StringBuilder(length * 6);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word());
+        }
+        return new Document(documentId, text.toString());
+    }
+
+    /**
+     * Returns documents with the ids 0 to count - 1.
+     *
+     * @param count - The number of documents.
+     */
+    public List<Document> documents(int count) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(document(i));
+        }
+        return documents;
+    }
+
+    /**
+     * Returns a query of the given number of terms, drawn from the Zipf distribution.
+     *
+     * @param terms - The number of terms.
+     */
+    public String[] query(int terms) {
+        String[] query = new String[terms];
+        for (int i = 0; i < terms; i++) {
+            query[i] = word();
+        }
+        return query;
+    }
+}
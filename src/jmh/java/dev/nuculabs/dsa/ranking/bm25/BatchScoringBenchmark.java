@@ -0,0 +1,69 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchScoringBenchmark compares scoring postings one document at a time, as the searcher did before the batch path,
+ * with the scalar and the vectorized {@link BatchScorer}s.
+ * <p>
+ * It lives in the bm25 package to reach the package-private scorers. The forked JVM loads the Vector API module, so
+ * the vectorized scorer can be measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchScoringBenchmark {
+    @Param({"128", "4096"})
+    public int postings;
+
+    private Bm25PlusSearcher searcher;
+    private BatchScorer scalarScorer;
+    private BatchScorer vectorScorer;
+    private int[] termFrequencies;
+    private double[] termFrequencyColumn;
+    private double[] lengthNormalizations;
+    private double[] scores;
+
+    @Setup
+    public void setup() {
+        searcher = new Bm25Plus().getSearcher();
+        scalarScorer = new ScalarBatchScorer(1.6, 0.7);
+        vectorScorer = BatchScorer.vectorized(1.6, 0.7).orElseThrow();
+        Random random = new Random(42);
+        termFrequencies = new int[postings];
+        termFrequencyColumn = new double[postings];
+        lengthNormalizations = new double[postings];
+        scores = new double[postings];
+        for (int i = 0; i < postings; i++) {
+            termFrequencies[i] = 1 + random.nextInt(10);
+            termFrequencyColumn[i] = termFrequencies[i];
+            lengthNormalizations[i] = 0.5 + random.nextDouble() * 3;
+        }
+    }
+
+    @Benchmark
+    public double[] perDocument() {
+        for (int i = 0; i < postings; i++) {
+            scores[i] = searcher.computeRsv(0.42, termFrequencies[i], lengthNormalizations[i]);
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public double[] scalarBatch() {
+        scalarScorer.score(0.42, termFrequencyColumn, lengthNormalizations, scores, postings);
+        return scores;
+    }
+
+    @Benchmark
+    public double[] vectorBatch() {
+        vectorScorer.score(0.42, termFrequencyColumn, lengthNormalizations, scores, postings);
+        return scores;
+    }
+}
@@ -0,0 +1,316 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IndexedLinkedList is a list with the operations of {@link LinkedList} whose positional operations run in O(log n).
+ * <p>
+ * The elements are kept in an implicit treap: a binary tree whose in-order traversal is the list, balanced by random
+ * priorities like a treap, where every node knows the size of its subtree. The position of an element is never
+ * stored, it is the number of elements to its left, so {@link #get(int)} walks down from the root by comparing the
+ * position with the sizes of the left subtrees, and {@link #insert(Object, int)} and {@link #delete(int)} split the
+ * tree at the position and merge the parts back, touching only the nodes of the expected O(log n) deep paths.
+ * <p>
+ * {@link #reverse()} is O(1): it flips a flag on the root, the flags are pushed down to the children as the nodes are
+ * visited.
+ * <p>
+ * Unlike {@link LinkedList}, the list hands out values and not nodes, since the nodes are tree nodes.
+ *
+ * @param <T> - The type of the list.
+ */
+public class IndexedLinkedList<T> implements Iterable<T> {
+    private TreeNode<T> root = null;
+
+    /**
+     * The parts produced by the last {@link #split(TreeNode, int)}.
+     */
+    private TreeNode<T> splitLeft;
+    private TreeNode<T> splitRight;
+
+    /**
+     * TreeNode is a node of the treap.
+     */
+    private static final class TreeNode<T> {
+        private final T value;
+        private final int priority;
+        private int size = 1;
+        private boolean reversed = false;
+        private TreeNode<T> left;
+        private TreeNode<T> right;
+
+        private TreeNode(T value) {
+            this.value = value;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    /**
+     * Returns an empty list.
+     * @return - Empty list.
+     * @param <T> - The list type.
+     */
+    public static <T> IndexedLinkedList<T> emptyList() {
+        return new IndexedLinkedList<>();
+    }
+
+    /**
+     * Builds a list of given values.
+     * @param values the values
+     * @return The list.
+     * @param <T> - The value type
+     */
+    @SafeVarargs
+    public static <T> IndexedLinkedList<T> of(T ...values) {
+        var list = new IndexedLinkedList<T>();
+        for (T value : values) {
+            list.append(value);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the first value of the list.
+     */
+    public Optional<T> getFirst() {
+        return get(0);
+    }
+
+    /**
+     * Returns the last value of the list.
+     */
+    public Optional<T> getLast() {
+        return get(getSize() - 1);
+    }
+
+    /**
+     * Appends the value to the list.
+     *
+     * @param value - The value to append.
+     */
+    public void append(T value) {
+        root = merge(root, new TreeNode<>(value));
+    }
+
+    /**
+     * Appends the values to the list.
+     *
+     * @param values - The value to append.
+     */
+    @SafeVarargs
+    public final void append(T... values) {
+        for (T value : values) {
+            append(value);
+        }
+    }
+
+    /**
+     * Insert value at position in the list.
+     * @param value - The value.
+     * @param position - The position.
+     */
+    public void insert(T value, int position) {
+        if (position < 0 || position > getSize()) {
+            throw new IllegalArgumentException("invalid position given");
+        }
+        split(root, position);
+        TreeNode<T> right = splitRight;
+        root = merge(merge(splitLeft, new TreeNode<>(value)), right);
+    }
+
+    /**
+     * Returns the size of the list.
+     *
+     * @return The list size.
+     */
+    public int getSize() {
+        return size(root);
+    }
+
+    /**
+     * Returns the value at the given position.
+     * @param position - The position
+     * @return - The value or empty if the position is out of the list.
+     */
+    public Optional<T> get(int position) {
+        if (position < 0 || position >= getSize()) {
+            return Optional.empty();
+        }
+        var node = root;
+        while (true) {
+            push(node);
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return Optional.ofNullable(node.value);
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Deletes an element at the given position.
+     * @param position - The position
+     */
+    public void delete(int position) {
+        if (position < 0 || position >= getSize()) {
+            throw new IllegalArgumentException("invalid position given");
+        }
+        split(root, position);
+        TreeNode<T> left = splitLeft;
+        split(splitRight, 1);
+        root = merge(left, splitRight);
+    }
+
+    /**
+     * Converts the list to a List.
+     * @return - The List.
+     */
+    public List<T> toList() {
+        var list = new ArrayList<T>(getSize());
+        for (T value : this) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Converts the list to an array.
+     * @return The array
+     */
+    @SuppressWarnings("unchecked")
+    public T[] toArray() {
+        var array = new Object[getSize()];
+        var index = 0;
+        for (T value : this) {
+            array[index] = value;
+            index += 1;
+        }
+        return (T[]) array;
+    }
+
+    /**
+     * Reverses the list in O(1), the reversal is applied lazily.
+     */
+    public void reverse() {
+        if (root != null) {
+            root.reversed = !root.reversed;
+        }
+    }
+
+    /**
+     * Returns an iterator walking the tree in order, with a stack as deep as the tree.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<TreeNode<T>> path = new ArrayDeque<>();
+
+            {
+                pushLeftPath(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                var node = path.pop();
+                pushLeftPath(node.right);
+                return node.value;
+            }
+
+            private void pushLeftPath(TreeNode<T> node) {
+                while (node != null) {
+                    push(node);
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    /**
+     * Splits a tree into its first count elements and the rest, stored in splitLeft and splitRight.
+     */
+    private void split(TreeNode<T> node, int count) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        push(node);
+        if (size(node.left) < count) {
+            split(node.right, count - size(node.left) - 1);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(node.left, count);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    /**
+     * Merges two trees, all the elements of the left tree come before those of the right tree.
+     */
+    private TreeNode<T> merge(TreeNode<T> left, TreeNode<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            push(left);
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        push(right);
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Applies a pending reversal of a node: its children are swapped and the reversal moves down to them.
+     */
+    private static <T> void push(TreeNode<T> node) {
+        if (node.reversed) {
+            var left = node.left;
+            node.left = node.right;
+            node.right = left;
+            if (node.left != null) {
+                node.left.reversed = !node.left.reversed;
+            }
+            if (node.right != null) {
+                node.right.reversed = !node.right.reversed;
+            }
+            node.reversed = false;
+        }
+    }
+
+    private static <T> void update(TreeNode<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(TreeNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
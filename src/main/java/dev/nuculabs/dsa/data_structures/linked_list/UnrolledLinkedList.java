@@ -0,0 +1,344 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * UnrolledLinkedList is a linked list whose nodes hold up to 64 elements each in an array.
+ * <p>
+ * A {@link LinkedList} pays an object, with its header and next pointer, for every element and its traversal jumps to
+ * a new, usually cold, cache line at every step. Here the elements of a node sit next to each other in an array, so a
+ * traversal reads them sequentially and follows a pointer once per node, and the per node overhead is shared by all
+ * its elements.
+ * <p>
+ * An insertion into a full node splits it in two half full nodes. A deletion which leaves a node less than half full
+ * merges it with a neighbouring node when both fit in one node, so the nodes stay dense. The positional operations
+ * still walk the list, but node by node, which makes them up to 64 times shorter than in a {@link LinkedList}.
+ * <p>
+ * Like {@link IndexedLinkedList}, the list hands out values and not nodes.
+ *
+ * @param <T> - The type of the list.
+ */
+public class UnrolledLinkedList<T> implements Iterable<T> {
+    static final int NODE_CAPACITY = 64;
+
+    private ArrayNode head = null;
+    private ArrayNode tail = null;
+    private int size = 0;
+
+    /**
+     * ArrayNode is a node of the list holding a run of elements.
+     */
+    private static final class ArrayNode {
+        private final Object[] elements = new Object[NODE_CAPACITY];
+        private int count = 0;
+        private ArrayNode next;
+    }
+
+    /**
+     * Returns an empty list.
+     * @return - Empty list.
+     * @param <T> - The list type.
+     */
+    public static <T> UnrolledLinkedList<T> emptyList() {
+        return new UnrolledLinkedList<>();
+    }
+
+    /**
+     * Builds a list of given values.
+     * @param values the values
+     * @return The list.
+     * @param <T> - The value type
+     */
+    @SafeVarargs
+    public static <T> UnrolledLinkedList<T> of(T ...values) {
+        var list = new UnrolledLinkedList<T>();
+        for (T value : values) {
+            list.append(value);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the first value of the list.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<T> getFirst() {
+        if (head == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) head.elements[0]);
+    }
+
+    /**
+     * Returns the last value of the list.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<T> getLast() {
+        if (tail == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) tail.elements[tail.count - 1]);
+    }
+
+    /**
+     * Appends the value to the list. The value goes into the last node while it has room, so a list built by appending
+     * has full nodes.
+     *
+     * @param value - The value to append.
+     */
+    public void append(T value) {
+        if (tail == null || tail.count == NODE_CAPACITY) {
+            var node = new ArrayNode();
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+        tail.elements[tail.count++] = value;
+        size += 1;
+    }
+
+    /**
+     * Appends the values to the list.
+     *
+     * @param values - The value to append.
+     */
+    @SafeVarargs
+    public final void append(T... values) {
+        for (T value : values) {
+            append(value);
+        }
+    }
+
+    /**
+     * Insert value at position in the list.
+     * @param value - The value.
+     * @param position - The position.
+     */
+    public void insert(T value, int position) {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("invalid position given");
+        }
+        if (position == size) {
+            append(value);
+            return;
+        }
+        // Find the node holding the position, an insertion at the end of a node goes into that node.
+        var node = head;
+        while (position > node.count) {
+            position -= node.count;
+            node = node.next;
+        }
+        if (node.count == NODE_CAPACITY) {
+            var upper = split(node);
+            if (position > node.count) {
+                position -= node.count;
+                node = upper;
+            }
+        }
+        System.arraycopy(node.elements, position, node.elements, position + 1, node.count - position);
+        node.elements[position] = value;
+        node.count += 1;
+        size += 1;
+    }
+
+    /**
+     * Returns the size of the list.
+     *
+     * @return The list size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the value at the given position.
+     * @param position - The position
+     * @return - The value or empty if the position is out of the list.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<T> get(int position) {
+        if (position < 0 || position >= size) {
+            return Optional.empty();
+        }
+        var node = head;
+        while (position >= node.count) {
+            position -= node.count;
+            node = node.next;
+        }
+        return Optional.ofNullable((T) node.elements[position]);
+    }
+
+    /**
+     * Deletes an element at the given position.
+     * @param position - The position
+     */
+    public void delete(int position) {
+        if (position < 0 || position >= size) {
+            throw new IllegalArgumentException("invalid position given");
+        }
+        ArrayNode previous = null;
+        var node = head;
+        while (position >= node.count) {
+            position -= node.count;
+            previous = node;
+            node = node.next;
+        }
+        System.arraycopy(node.elements, position + 1, node.elements, position, node.count - position - 1);
+        node.count -= 1;
+        node.elements[node.count] = null;
+        size -= 1;
+
+        if (node.count == 0) {
+            unlink(previous, node);
+        } else if (node.count < NODE_CAPACITY / 2) {
+            // Merge the node with a neighbour it fits in, so the nodes stay at least half full on average.
+            if (previous != null && previous.count + node.count <= NODE_CAPACITY) {
+                moveAll(node, previous);
+                unlink(previous, node);
+            } else if (node.next != null && node.count + node.next.count <= NODE_CAPACITY) {
+                var next = node.next;
+                moveAll(next, node);
+                unlink(node, next);
+            }
+        }
+    }
+
+    /**
+     * Converts the list to a List.
+     * @return - The List.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        var list = new ArrayList<T>(size);
+        for (var node = head; node != null; node = node.next) {
+            for (int i = 0; i < node.count; i++) {
+                list.add((T) node.elements[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Converts the list to an array, copying a node at a time.
+     * @return The array
+     */
+    @SuppressWarnings("unchecked")
+    public T[] toArray() {
+        var array = new Object[size];
+        var index = 0;
+        for (var node = head; node != null; node = node.next) {
+            System.arraycopy(node.elements, 0, array, index, node.count);
+            index += node.count;
+        }
+        return (T[]) array;
+    }
+
+    /**
+     * Reverses the list in-place: the order of the nodes and the elements of every node.
+     */
+    public void reverse() {
+        tail = head;
+        ArrayNode previous = null;
+        var node = head;
+        while (node != null) {
+            for (int i = 0, j = node.count - 1; i < j; i++, j--) {
+                var element = node.elements[i];
+                node.elements[i] = node.elements[j];
+                node.elements[j] = element;
+            }
+            var next = node.next;
+            node.next = previous;
+            previous = node;
+            node = next;
+        }
+        head = previous;
+    }
+
+    /**
+     * Returns the number of nodes of the list.
+     */
+    int getNodeCount() {
+        int nodes = 0;
+        for (var node = head; node != null; node = node.next) {
+            nodes += 1;
+        }
+        return nodes;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private ArrayNode node = head;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                var value = (T) node.elements[index++];
+                if (index == node.count) {
+                    node = node.next;
+                    index = 0;
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Moves the upper half of a full node into a new node following it.
+     *
+     * @return The new node.
+     */
+    private ArrayNode split(ArrayNode node) {
+        var upper = new ArrayNode();
+        int half = node.count / 2;
+        upper.count = node.count - half;
+        System.arraycopy(node.elements, half, upper.elements, 0, upper.count);
+        Arrays.fill(node.elements, half, node.count, null);
+        node.count = half;
+        upper.next = node.next;
+        node.next = upper;
+        if (tail == node) {
+            tail = upper;
+        }
+        return upper;
+    }
+
+    /**
+     * Appends all the elements of a node to the elements of another node.
+     */
+    private static void moveAll(ArrayNode from, ArrayNode to) {
+        System.arraycopy(from.elements, 0, to.elements, to.count, from.count);
+        to.count += from.count;
+    }
+
+    /**
+     * Removes a node from the list.
+     */
+    private void unlink(ArrayNode previous, ArrayNode node) {
+        if (previous == null) {
+            head = node.next;
+        } else {
+            previous.next = node.next;
+        }
+        if (tail == node) {
+            tail = previous;
+        }
+    }
+}
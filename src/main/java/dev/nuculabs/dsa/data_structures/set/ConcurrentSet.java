@@ -0,0 +1,164 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ConcurrentSet is a thread-safe set of items built from lock striping.
+ * <p>
+ * The elements are split by hash into a power of two number of segments and every segment is an
+ * {@link OpenAddressingSet} guarded by its own lock. The segment is picked by the high bits of the mixed hash and the
+ * slot within the segment by the low bits, so the elements of a segment still spread over its whole table. Threads
+ * working on different segments never wait for each other, and a segment which grows past its load factor resizes
+ * under its own lock while the other segments keep serving inserts and lookups.
+ * <p>
+ * {@link #insert(Object)} checks and adds an element atomically, so of several threads inserting the same element
+ * exactly one is told that it added it, which is what a set shared for de-duplication needs.
+ *
+ * @param <T> - The type of the elements.
+ */
+public class ConcurrentSet<T> {
+    private final OpenAddressingSet<T>[] segments;
+    private final int segmentMask;
+    private final int segmentShift;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConcurrentSet(int capacity, int concurrencyLevel, float loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrency level must be positive");
+        }
+        int segmentCount = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1);
+        segments = new OpenAddressingSet[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = OpenAddressingSet.of(Math.max(1, capacity / segmentCount), loadFactor);
+        }
+        segmentMask = segmentCount - 1;
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Inserts an element into the set atomically.
+     *
+     * @param element - The element.
+     * @return True if the element was added, false if it was already present.
+     */
+    public boolean insert(T element) {
+        OpenAddressingSet<T> segment = segmentFor(element);
+        synchronized (segment) {
+            return segment.insert(element);
+        }
+    }
+
+    /**
+     * Checks if the element is present in the set.
+     *
+     * @param element - The element.
+     */
+    public boolean contains(T element) {
+        OpenAddressingSet<T> segment = segmentFor(element);
+        synchronized (segment) {
+            return segment.contains(element);
+        }
+    }
+
+    /**
+     * Removes an element from the set atomically.
+     *
+     * @param element - The element.
+     * @return True if the element was removed, false if it was not present.
+     */
+    public boolean remove(T element) {
+        OpenAddressingSet<T> segment = segmentFor(element);
+        synchronized (segment) {
+            return segment.remove(element);
+        }
+    }
+
+    /**
+     * Returns the number of elements. The segments are counted one after the other, so the result is exact only when
+     * the set is not modified concurrently.
+     */
+    public int size() {
+        int size = 0;
+        for (OpenAddressingSet<T> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of segments.
+     */
+    public int getConcurrencyLevel() {
+        return segments.length;
+    }
+
+    /**
+     * Returns all the values from the set. The segments are copied one after the other, so concurrent modifications
+     * of the segments which were not copied yet are included.
+     *
+     * @return A list of values.
+     */
+    public List<T> getValues() {
+        List<T> values = new ArrayList<>();
+        for (OpenAddressingSet<T> segment : segments) {
+            synchronized (segment) {
+                values.addAll(segment.getValues());
+            }
+        }
+        return values;
+    }
+
+    private OpenAddressingSet<T> segmentFor(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        // A single segment shifts by 32, which Java treats as a shift by 0, the mask clears the bits then.
+        return segments[(OpenAddressingSet.mix(element.hashCode()) >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Constructs a new ConcurrentSet<T>.
+     *
+     * @param capacity         - The expected number of elements.
+     * @param concurrencyLevel - The expected number of concurrent writers, rounded up to a power of two segments.
+     * @param loadFactor       - The maximum ratio of elements to slots of every segment, between 0 and 1.
+     * @param <T>              - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> ConcurrentSet<T> of(int capacity, int concurrencyLevel, float loadFactor) {
+        return new ConcurrentSet<>(capacity, concurrencyLevel, loadFactor);
+    }
+
+    /**
+     * Constructs a new ConcurrentSet<T> with four segments per processor and the default load factor.
+     *
+     * @param capacity - The expected number of elements.
+     * @param <T>      - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> ConcurrentSet<T> of(int capacity) {
+        return new ConcurrentSet<>(capacity, defaultConcurrencyLevel(), OpenAddressingSet.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new ConcurrentSet<T> with a default capacity, four segments per processor and the default load
+     * factor.
+     *
+     * @param <T> - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> ConcurrentSet<T> construct() {
+        int concurrencyLevel = defaultConcurrencyLevel();
+        return new ConcurrentSet<>(concurrencyLevel * OpenAddressingSet.DEFAULT_CAPACITY, concurrencyLevel, OpenAddressingSet.DEFAULT_LOAD_FACTOR);
+    }
+
+    private static int defaultConcurrencyLevel() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+}
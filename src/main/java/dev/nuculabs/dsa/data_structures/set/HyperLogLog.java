@@ -0,0 +1,193 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog estimates the number of distinct elements added to it in a few kilobytes, whatever that number is.
+ * <p>
+ * The 64-bit hash of an element picks one of 2^precision registers with its high bits, and the register keeps the
+ * longest run of leading zeros seen in the remaining bits. The harmonic mean of the registers estimates the
+ * cardinality with a relative standard error of about 1.04 / sqrt(2^precision), small cardinalities are counted from
+ * the empty registers instead, like in the original paper.
+ * <p>
+ * The elements are hashed like in {@link BloomFilter}, so the elements with equal hash codes count once, and
+ * {@link #addHash(long)} takes a custom 64-bit hash. A sketch is not thread-safe: every thread or shard counts in its
+ * own sketch and the sketches are combined with {@link #merge(HyperLogLog)}, which gives the sketch of the union.
+ *
+ * @param <T> - The type of the elements.
+ */
+public class HyperLogLog<T> {
+    private static final int MAGIC = 0x484C4C53;
+    private static final int MINIMUM_PRECISION = 4;
+    private static final int MAXIMUM_PRECISION = 18;
+    private static final int REGISTER_BITS = 6;
+
+    private final int precision;
+    private final byte[] registers;
+
+    private HyperLogLog(int precision) {
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds an element to the sketch.
+     *
+     * @param element - The element.
+     */
+    public void add(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        addHash(OpenAddressingSet.mix((long) element.hashCode()));
+    }
+
+    /**
+     * Adds an element given by its 64-bit hash.
+     *
+     * @param hash - The well mixed 64-bit hash of the element.
+     */
+    public void addHash(long hash) {
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // The marker bit bounds the run of zeros when all the remaining bits are 0.
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Estimates the number of distinct elements.
+     */
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters += 1;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && emptyRegisters > 0) {
+            estimate = m * Math.log((double) m / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Adds the elements of another sketch to this sketch. The sketches must have the same precision.
+     *
+     * @param other - The other sketch.
+     */
+    public void merge(HyperLogLog<T> other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("the sketches must have the same precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    /**
+     * Returns the number of index bits, the sketch has 2^precision registers.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the relative standard error of the estimates.
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Serializes the sketch: a header with the precision followed by the registers packed in 6 bits each.
+     *
+     * @return The bytes.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + registers.length * REGISTER_BITS / Byte.SIZE);
+        buffer.putInt(MAGIC).putInt(precision);
+        // Four registers fill three bytes, the number of registers is a multiple of 16.
+        for (int i = 0; i < registers.length; i += 4) {
+            int packed = registers[i] << 18 | registers[i + 1] << 12 | registers[i + 2] << 6 | registers[i + 3];
+            buffer.put((byte) (packed >>> 16)).put((byte) (packed >>> 8)).put((byte) packed);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Deserializes a sketch written by {@link #toBytes()}.
+     *
+     * @param bytes - The bytes.
+     * @param <T>   - The type of the elements.
+     * @return The sketch.
+     */
+    public static <T> HyperLogLog<T> fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("invalid hyperloglog sketch");
+        }
+        int precision = buffer.getInt();
+        if (precision < MINIMUM_PRECISION || precision > MAXIMUM_PRECISION
+                || bytes.length != 2 * Integer.BYTES + (1 << precision) * REGISTER_BITS / Byte.SIZE) {
+            throw new IllegalArgumentException("invalid hyperloglog sketch");
+        }
+        HyperLogLog<T> sketch = new HyperLogLog<>(precision);
+        for (int i = 0; i < sketch.registers.length; i += 4) {
+            int packed = (buffer.get() & 0xff) << 16 | (buffer.get() & 0xff) << 8 | (buffer.get() & 0xff);
+            sketch.registers[i] = (byte) (packed >>> 18);
+            sketch.registers[i + 1] = (byte) (packed >>> 12 & 0x3f);
+            sketch.registers[i + 2] = (byte) (packed >>> 6 & 0x3f);
+            sketch.registers[i + 3] = (byte) (packed & 0x3f);
+        }
+        return sketch;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * Constructs a new HyperLogLog<T> with 2^precision registers.
+     *
+     * @param precision - The number of index bits, between 4 and 18.
+     * @param <T>       - The type of the elements.
+     * @return - The sketch.
+     */
+    public static <T> HyperLogLog<T> of(int precision) {
+        if (precision < MINIMUM_PRECISION || precision > MAXIMUM_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        return new HyperLogLog<>(precision);
+    }
+
+    /**
+     * Constructs a new HyperLogLog<T> with the fewest registers giving at most the given relative standard error.
+     *
+     * @param standardError - The relative standard error, for example 0.01 for 1%.
+     * @param <T>           - The type of the elements.
+     * @return - The sketch.
+     */
+    public static <T> HyperLogLog<T> withStandardError(double standardError) {
+        if (!(standardError > 0 && standardError < 1)) {
+            throw new IllegalArgumentException("standard error must be between 0 and 1");
+        }
+        double registers = Math.pow(1.04 / standardError, 2);
+        int precision = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        if (precision > MAXIMUM_PRECISION) {
+            throw new IllegalArgumentException("standard error is too small for the maximum precision");
+        }
+        return of(Math.max(MINIMUM_PRECISION, precision));
+    }
+}
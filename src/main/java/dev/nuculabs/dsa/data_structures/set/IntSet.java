@@ -0,0 +1,206 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+/**
+ * IntSet is a set of int values stored unboxed in an open addressing table with linear probing.
+ * <p>
+ * It works like {@link OpenAddressingSet} without the boxing: the table is a plain int array and 0 marks a free
+ * slot, the value 0 itself is tracked by a flag outside the table. A value is its own hash, so there is nothing to
+ * cache, the slots are picked by the mixed value.
+ */
+public class IntSet {
+    private static final int FREE = 0;
+
+    private final float loadFactor;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+    private int resizeThreshold;
+    private boolean containsFree = false;
+
+    private IntSet(int capacity, float loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("load factor must be between 0 and 1");
+        }
+        this.loadFactor = loadFactor;
+        allocate(OpenAddressingSet.tableSize(capacity, loadFactor));
+    }
+
+    /**
+     * Inserts a value into the set.
+     *
+     * @param value - The value.
+     * @return True if the value was added, false if it was already present.
+     */
+    public boolean insert(int value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size += 1;
+            return true;
+        }
+        int slot = OpenAddressingSet.mix(value) & mask;
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Grow before inserting, so a full set throws without taking the value.
+        if (size + 1 > resizeThreshold) {
+            resize(OpenAddressingSet.grownCapacity(values.length));
+            slot = OpenAddressingSet.mix(value) & mask;
+            while (values[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        values[slot] = value;
+        size += 1;
+        return true;
+    }
+
+    /**
+     * Checks if the value is present in the set.
+     *
+     * @param value - The value.
+     */
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        return find(value) >= 0;
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value - The value.
+     * @return True if the value was removed, false if it was not present.
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size -= 1;
+            return true;
+        }
+        int slot = find(value);
+        if (slot < 0) {
+            return false;
+        }
+        // Shift back the following values of the probe sequence, see OpenAddressingSet#remove.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != FREE) {
+            int home = OpenAddressingSet.mix(values[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = FREE;
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Returns the number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     */
+    public int getCapacity() {
+        return values.length;
+    }
+
+    /**
+     * Returns all the values from the set, in table order after the value 0.
+     *
+     * @return An array of values.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int length = 0;
+        if (containsFree) {
+            result[length++] = FREE;
+        }
+        for (int value : values) {
+            if (value != FREE) {
+                result[length++] = value;
+            }
+        }
+        return result;
+    }
+
+    private int find(int value) {
+        int slot = OpenAddressingSet.mix(value) & mask;
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int value : oldValues) {
+            if (value != FREE) {
+                int slot = OpenAddressingSet.mix(value) & mask;
+                while (values[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Constructs a new IntSet holding the given number of values without resizing.
+     *
+     * @param capacity   - The expected number of values.
+     * @param loadFactor - The maximum ratio of values to slots, between 0 and 1.
+     * @return - The set object.
+     */
+    public static IntSet of(int capacity, float loadFactor) {
+        return new IntSet(capacity, loadFactor);
+    }
+
+    /**
+     * Constructs a new IntSet holding the given number of values without resizing, with the default load factor.
+     *
+     * @param capacity - The expected number of values.
+     * @return - The set object.
+     */
+    public static IntSet of(int capacity) {
+        return new IntSet(capacity, OpenAddressingSet.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new IntSet with a default capacity and load factor.
+     *
+     * @return - The set object.
+     */
+    public static IntSet construct() {
+        return new IntSet(OpenAddressingSet.DEFAULT_CAPACITY, OpenAddressingSet.DEFAULT_LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,430 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import utils.BufferReleaser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OffHeapSet is a set of fixed width keys stored outside the Java heap, in direct or memory-mapped buffers.
+ * <p>
+ * The keys are longs or byte arrays of up to {@code keyBytes} bytes. The table uses open addressing with linear
+ * probing, like {@link OpenAddressingSet}, but a slot is a run of bytes instead of an object: a tag holding the high
+ * bits of the hash (0 marks a free slot), the length of the key and the key itself, zero padded to whole longs. A set
+ * of longs costs 16 bytes per slot and no object at all, so even billions of keys put nothing on the garbage collected
+ * heap.
+ * <p>
+ * A buffer can't address more than 2 GiB, so the table is split into pages of at most 1 GiB and a slot is addressed
+ * by a long. The table doubles once the number of keys exceeds its capacity times the load factor: a new table is
+ * allocated, the keys are rehashed into it and the old buffers are released.
+ * <p>
+ * A set allocated with {@link #allocate(int, long)} lives in direct memory. A set created with
+ * {@link #map(Path, int, long, float)} lives in a memory-mapped file, which lets the table grow past the physical
+ * memory, the operating system pages it in and out. The file is scratch space, it is deleted when the set is closed.
+ * <p>
+ * The memory is released by {@link #close()}, the set can't be used after it. It is not thread-safe.
+ */
+public class OffHeapSet implements Closeable {
+    private static final int FREE = 0;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAXIMUM_PAGE_BYTES = 1 << 30;
+
+    private final int keyWords;
+    private final int slotBytes;
+    private final float loadFactor;
+    private final int pageShift;
+    private final Path file;
+    private ByteBuffer[] pages;
+    private long mask;
+    private long size = 0;
+    private long resizeThreshold;
+    private boolean closed = false;
+
+    private OffHeapSet(Path file, int keyBytes, long capacity, float loadFactor, int maximumPageBytes) throws IOException {
+        if (keyBytes <= 0) {
+            throw new IllegalArgumentException("key bytes must be positive");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("load factor must be between 0 and 1");
+        }
+        this.file = file;
+        this.keyWords = (keyBytes + Long.BYTES - 1) / Long.BYTES;
+        this.slotBytes = HEADER_BYTES + keyWords * Long.BYTES;
+        this.loadFactor = loadFactor;
+        this.pageShift = 63 - Long.numberOfLeadingZeros(Math.max(1, maximumPageBytes / slotBytes));
+        long slots = Math.max(2, Long.highestOneBit((long) Math.ceil(capacity / (double) loadFactor)) << 1);
+        this.pages = allocatePages(file, slots);
+        this.mask = slots - 1;
+        this.resizeThreshold = Math.min(slots - 1, (long) (slots * loadFactor));
+    }
+
+    /**
+     * Inserts a long key into the set, which is the same key as its 8 big-endian bytes.
+     *
+     * @param key - The key.
+     * @return True if the key was added, false if it was already present.
+     */
+    public boolean insert(long key) {
+        return insert(key, null, Long.BYTES);
+    }
+
+    /**
+     * Inserts a byte array key into the set.
+     *
+     * @param key - The key, no longer than the key width of the set.
+     * @return True if the key was added, false if it was already present.
+     */
+    public boolean insert(byte[] key) {
+        return insert(0, checkKey(key), key.length);
+    }
+
+    /**
+     * Checks if a long key is present in the set.
+     *
+     * @param key - The key.
+     */
+    public boolean contains(long key) {
+        ensureOpen();
+        return find(hash(key, null, Long.BYTES), key, null, Long.BYTES) >= 0;
+    }
+
+    /**
+     * Checks if a byte array key is present in the set.
+     *
+     * @param key - The key.
+     */
+    public boolean contains(byte[] key) {
+        ensureOpen();
+        return find(hash(0, checkKey(key), key.length), 0, key, key.length) >= 0;
+    }
+
+    /**
+     * Removes a long key from the set.
+     *
+     * @param key - The key.
+     * @return True if the key was removed, false if it was not present.
+     */
+    public boolean remove(long key) {
+        return remove(key, null, Long.BYTES);
+    }
+
+    /**
+     * Removes a byte array key from the set.
+     *
+     * @param key - The key.
+     * @return True if the key was removed, false if it was not present.
+     */
+    public boolean remove(byte[] key) {
+        return remove(0, checkKey(key), key.length);
+    }
+
+    /**
+     * Returns the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     */
+    public long getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of off-heap bytes used by the table.
+     */
+    public long getSizeInBytes() {
+        return (mask + 1) * slotBytes;
+    }
+
+    /**
+     * Releases the memory of the set and deletes its file, if it has one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        BufferReleaser.release(pages);
+        pages = null;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private boolean insert(long word, byte[] key, int length) {
+        ensureOpen();
+        long hash = hash(word, key, length);
+        long slot = find(hash, word, key, length);
+        if (slot >= 0) {
+            return false;
+        }
+        slot = -slot - 1;
+        ByteBuffer page = page(slot);
+        int offset = offset(slot);
+        page.putInt(offset, tag(hash));
+        page.putInt(offset + Integer.BYTES, length);
+        for (int i = 0; i < keyWords; i++) {
+            page.putLong(offset + HEADER_BYTES + i * Long.BYTES, key == null ? (i == 0 ? word : 0) : keyWord(key, i));
+        }
+        size += 1;
+        if (size > resizeThreshold) {
+            resize();
+        }
+        return true;
+    }
+
+    private boolean remove(long word, byte[] key, int length) {
+        ensureOpen();
+        long slot = find(hash(word, key, length), word, key, length);
+        if (slot < 0) {
+            return false;
+        }
+        // Shift back the following keys of the probe sequence, see OpenAddressingSet#remove.
+        long hole = slot;
+        long next = (hole + 1) & mask;
+        while (page(next).getInt(offset(next)) != FREE) {
+            long home = storedHash(page(next), offset(next)) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                copySlot(page(next), offset(next), page(hole), offset(hole));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        ByteBuffer page = page(hole);
+        int offset = offset(hole);
+        for (int i = 0; i < slotBytes; i += Long.BYTES) {
+            page.putLong(offset + i, 0);
+        }
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Returns the slot of a key or, if it is not present, -(free slot) - 1.
+     */
+    private long find(long hash, long word, byte[] key, int length) {
+        int tag = tag(hash);
+        long slot = hash & mask;
+        while (true) {
+            ByteBuffer page = page(slot);
+            int offset = offset(slot);
+            int slotTag = page.getInt(offset);
+            if (slotTag == FREE) {
+                return -slot - 1;
+            }
+            if (slotTag == tag && page.getInt(offset + Integer.BYTES) == length && keyEquals(page, offset, word, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(ByteBuffer page, int offset, long word, byte[] key) {
+        for (int i = 0; i < keyWords; i++) {
+            long expected = key == null ? (i == 0 ? word : 0) : keyWord(key, i);
+            if (page.getLong(offset + HEADER_BYTES + i * Long.BYTES) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        long slots = (mask + 1) * 2;
+        ByteBuffer[] oldPages = pages;
+        long oldSlots = mask + 1;
+        try {
+            pages = allocatePages(file == null ? null : resizeFile(), slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mask = slots - 1;
+        resizeThreshold = Math.min(slots - 1, (long) (slots * loadFactor));
+        for (long oldSlot = 0; oldSlot < oldSlots; oldSlot++) {
+            ByteBuffer oldPage = oldPages[(int) (oldSlot >>> pageShift)];
+            int oldOffset = (int) (oldSlot & ((1L << pageShift) - 1)) * slotBytes;
+            if (oldPage.getInt(oldOffset) == FREE) {
+                continue;
+            }
+            long slot = storedHash(oldPage, oldOffset) & mask;
+            while (page(slot).getInt(offset(slot)) != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            copySlot(oldPage, oldOffset, page(slot), offset(slot));
+        }
+        BufferReleaser.release(oldPages);
+        if (file != null) {
+            try {
+                Files.move(resizeFile(), file, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Path resizeFile() {
+        return file.resolveSibling(file.getFileName() + ".resize");
+    }
+
+    /**
+     * Allocates the pages of a table, in direct memory or mapped from the given file.
+     */
+    private ByteBuffer[] allocatePages(Path file, long slots) throws IOException {
+        long slotsPerPage = Math.min(slots, 1L << pageShift);
+        int pageBytes = (int) (slotsPerPage * slotBytes);
+        ByteBuffer[] allocated = new ByteBuffer[(int) (slots / slotsPerPage)];
+        if (file == null) {
+            for (int i = 0; i < allocated.length; i++) {
+                allocated[i] = ByteBuffer.allocateDirect(pageBytes);
+            }
+            return allocated;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file, a sparse file reads as zeros, which are free slots.
+            for (int i = 0; i < allocated.length; i++) {
+                allocated[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * pageBytes, pageBytes);
+            }
+        }
+        return allocated;
+    }
+
+    private ByteBuffer page(long slot) {
+        return pages[(int) (slot >>> pageShift)];
+    }
+
+    private int offset(long slot) {
+        return (int) (slot & ((1L << pageShift) - 1)) * slotBytes;
+    }
+
+    private void copySlot(ByteBuffer from, int fromOffset, ByteBuffer to, int toOffset) {
+        for (int i = 0; i < slotBytes; i += Long.BYTES) {
+            to.putLong(toOffset + i, from.getLong(fromOffset + i));
+        }
+    }
+
+    /**
+     * Recomputes the hash of the key stored in a slot.
+     */
+    private long storedHash(ByteBuffer page, int offset) {
+        long hash = page.getInt(offset + Integer.BYTES) * 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < keyWords; i++) {
+            hash = OpenAddressingSet.mix(hash ^ page.getLong(offset + HEADER_BYTES + i * Long.BYTES));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a key word by word, the words past the end of the key are zero like in the stored slots.
+     */
+    private long hash(long word, byte[] key, int length) {
+        long hash = length * 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < keyWords; i++) {
+            hash = OpenAddressingSet.mix(hash ^ (key == null ? (i == 0 ? word : 0) : keyWord(key, i)));
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the tag of a hash, the high bits which are not used to pick the slot, never {@link #FREE}.
+     */
+    private static int tag(long hash) {
+        return (int) (hash >>> 32) | 1;
+    }
+
+    /**
+     * Returns the i-th big-endian long of a key, zero padded.
+     */
+    private static long keyWord(byte[] key, int index) {
+        long word = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            int position = index * Long.BYTES + i;
+            word = (word << 8) | (position < key.length ? key[position] & 0xff : 0);
+        }
+        return word;
+    }
+
+    private byte[] checkKey(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        if (key.length > keyWords * Long.BYTES) {
+            throw new IllegalArgumentException("key is longer than " + keyWords * Long.BYTES + " bytes");
+        }
+        return key;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the set is closed");
+        }
+    }
+
+    /**
+     * Allocates a set in direct memory with the default load factor.
+     *
+     * @param keyBytes - The maximum length of a key, 8 for long keys.
+     * @param capacity - The expected number of keys.
+     * @return - The set object.
+     */
+    public static OffHeapSet allocate(int keyBytes, long capacity) {
+        return allocate(keyBytes, capacity, OpenAddressingSet.DEFAULT_LOAD_FACTOR, MAXIMUM_PAGE_BYTES);
+    }
+
+    /**
+     * Allocates a set in direct memory.
+     *
+     * @param keyBytes   - The maximum length of a key, 8 for long keys.
+     * @param capacity   - The expected number of keys.
+     * @param loadFactor - The maximum ratio of keys to slots, between 0 and 1.
+     * @return - The set object.
+     */
+    public static OffHeapSet allocate(int keyBytes, long capacity, float loadFactor) {
+        return allocate(keyBytes, capacity, loadFactor, MAXIMUM_PAGE_BYTES);
+    }
+
+    /**
+     * Allocates a set in direct memory with pages of at most the given size.
+     */
+    static OffHeapSet allocate(int keyBytes, long capacity, float loadFactor, int maximumPageBytes) {
+        try {
+            return new OffHeapSet(null, keyBytes, capacity, loadFactor, maximumPageBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a set in a memory-mapped file, which is created or truncated and deleted when the set is closed.
+     *
+     * @param file       - The file.
+     * @param keyBytes   - The maximum length of a key, 8 for long keys.
+     * @param capacity   - The expected number of keys.
+     * @param loadFactor - The maximum ratio of keys to slots, between 0 and 1.
+     * @return - The set object.
+     */
+    public static OffHeapSet map(Path file, int keyBytes, long capacity, float loadFactor) throws IOException {
+        return new OffHeapSet(file, keyBytes, capacity, loadFactor, MAXIMUM_PAGE_BYTES);
+    }
+
+    /**
+     * Creates a set in a memory-mapped file with pages of at most the given size.
+     */
+    static OffHeapSet map(Path file, int keyBytes, long capacity, float loadFactor, int maximumPageBytes) throws IOException {
+        return new OffHeapSet(file, keyBytes, capacity, loadFactor, maximumPageBytes);
+    }
+}
@@ -0,0 +1,268 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAddressingSet is a set of items stored in a single table with linear probing.
+ * <p>
+ * Unlike {@link Set}, which chains the elements of a bucket in a list and never grows, the elements are stored in the
+ * table slots themselves and an element whose slot is taken goes to the next free slot. The table doubles once the
+ * number of elements exceeds its capacity times the load factor, which keeps the probe sequences short whatever the
+ * number of elements.
+ * <p>
+ * The hash of every element is cached next to it: a probe compares the cached hashes before calling equals and a
+ * resize moves the elements without calling hashCode again. Removing an element shifts the following elements of its
+ * probe sequence back instead of leaving a tombstone, so the table never fills up with deleted slots.
+ *
+ * @param <T> - The type of the elements.
+ */
+public class OpenAddressingSet<T> {
+    static final int DEFAULT_CAPACITY = 16;
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final float loadFactor;
+    private Object[] elements;
+    private int[] hashes;
+    private int mask;
+    private int size = 0;
+    private int resizeThreshold;
+
+    private OpenAddressingSet(int capacity, float loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("load factor must be between 0 and 1");
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSize(capacity, loadFactor));
+    }
+
+    /**
+     * Inserts an element into the set.
+     *
+     * @param element - The element.
+     * @return True if the element was added, false if it was already present.
+     */
+    public boolean insert(T element) {
+        int hash = hash(element);
+        int slot = hash & mask;
+        while (elements[slot] != null) {
+            if (hashes[slot] == hash && elements[slot].equals(element)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Grow before inserting, so a full set throws without taking the element.
+        if (size + 1 > resizeThreshold) {
+            resize(grownCapacity(elements.length));
+            slot = hash & mask;
+            while (elements[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        elements[slot] = element;
+        hashes[slot] = hash;
+        size += 1;
+        return true;
+    }
+
+    /**
+     * Checks if the element is present in the set.
+     *
+     * @param element - The element.
+     */
+    public boolean contains(T element) {
+        return find(element) >= 0;
+    }
+
+    /**
+     * Removes an element from the set.
+     *
+     * @param element - The element.
+     * @return True if the element was removed, false if it was not present.
+     */
+    public boolean remove(T element) {
+        int slot = find(element);
+        if (slot < 0) {
+            return false;
+        }
+        // Shift back the following elements of the probe sequence which may live in the freed slot, an element can
+        // move to the hole if its home slot is not between the hole and its current slot.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (elements[next] != null) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                elements[hole] = elements[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        elements[hole] = null;
+        hashes[hole] = 0;
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Returns the number of elements.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     */
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    /**
+     * Returns all the values from the set, in table order.
+     *
+     * @return A list of values.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getValues() {
+        List<T> values = new ArrayList<>(size);
+        for (Object element : elements) {
+            if (element != null) {
+                values.add((T) element);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the slot of an element or -1 if it is not present.
+     */
+    private int find(T element) {
+        int hash = hash(element);
+        int slot = hash & mask;
+        while (elements[slot] != null) {
+            if (hashes[slot] == hash && elements[slot].equals(element)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldElements = elements;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int i = 0; i < oldElements.length; i++) {
+            if (oldElements[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (elements[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                elements[slot] = oldElements[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        elements = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Returns the hash of an element, spread so that the elements whose hash codes differ only in the high bits, like
+     * consecutive multiples of a power of two, don't all land in the same slots.
+     */
+    private static int hash(Object element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        return mix(element.hashCode());
+    }
+
+    /**
+     * Mixes the bits of a hash code with the finalizer of MurmurHash3.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Mixes the bits of a long with the finalizer of MurmurHash3.
+     */
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb185e1c1a3a5L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Returns the capacity of a table grown from the given capacity.
+     *
+     * @throws IllegalStateException if the table already has the maximum capacity.
+     */
+    static int grownCapacity(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("the set is full");
+        }
+        return capacity * 2;
+    }
+
+    /**
+     * Returns the smallest power of two table which holds the given number of elements below the load factor.
+     */
+    static int tableSize(int elements, float loadFactor) {
+        long slots = (long) Math.ceil(elements / (double) loadFactor) + 1;
+        if (slots > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(2, Integer.highestOneBit((int) slots - 1) << 1);
+    }
+
+    /**
+     * Constructs a new OpenAddressingSet<T> holding the given number of elements without resizing.
+     *
+     * @param capacity   - The expected number of elements.
+     * @param loadFactor - The maximum ratio of elements to slots, between 0 and 1.
+     * @param <T>        - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> OpenAddressingSet<T> of(int capacity, float loadFactor) {
+        return new OpenAddressingSet<>(capacity, loadFactor);
+    }
+
+    /**
+     * Constructs a new OpenAddressingSet<T> holding the given number of elements without resizing, with the default
+     * load factor.
+     *
+     * @param capacity - The expected number of elements.
+     * @param <T>      - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> OpenAddressingSet<T> of(int capacity) {
+        return new OpenAddressingSet<>(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new OpenAddressingSet<T> with a default capacity and load factor.
+     *
+     * @param <T> - The type of the set.
+     * @return - The set object.
+     */
+    public static <T> OpenAddressingSet<T> construct() {
+        return new OpenAddressingSet<>(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+}
@@ -1,23 +1,45 @@
 package dev.nuculabs.dsa.data_structures.set;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Set is a set of items with simple operations.
+ * <p>
+ * The set is iterated by walking its non-empty buckets directly, with {@link #iterator()} or with a stream, so nothing
+ * is copied. It must not be modified while it is iterated.
  *
  * @param <T>
  */
-public class Set<T> {
+public class Set<T> implements Iterable<T> {
     private final ArrayList<T>[] hashTable;
     private final int capacity;
-    private final ArrayList<Integer> values;
+    /**
+     * The indexes of the non-empty buckets, the first usedBucketCount are valid. A bucket emptied by a removal is
+     * replaced by the last one, so the buckets are in the order they were first used until something is removed.
+     */
+    private int[] usedBuckets = new int[16];
+    private int usedBucketCount = 0;
+    /**
+     * The position of every non-empty bucket in usedBuckets, so a bucket is dropped from it in constant time.
+     */
+    private int[] usedBucketPositions;
+    private int size = 0;
 
     @SuppressWarnings("unchecked")
     private Set(int capacity) {
         hashTable = new ArrayList[capacity];
-        values = new ArrayList<>();
+        usedBucketPositions = new int[capacity];
         this.capacity = capacity;
     }
 
@@ -30,16 +52,59 @@ public class Set<T> {
         if (this.contains(element)) {
             return;
         }
+        insertAbsent(element);
+    }
+
+    /**
+     * Inserts an element which is known not to be in the set.
+     */
+    private void insertAbsent(T element) {
         var hash = getHash(element);
         var list = hashTable[hash];
         if (list == null) {
             hashTable[hash] = new ArrayList<T>();
             hashTable[hash].add(element);
 
-            values.add(hash);
+            if (usedBucketCount == usedBuckets.length) {
+                usedBuckets = Arrays.copyOf(usedBuckets, usedBucketCount * 2);
+            }
+            usedBucketPositions[hash] = usedBucketCount;
+            usedBuckets[usedBucketCount++] = hash;
         } else {
             list.add(element);
         }
+        size += 1;
+    }
+
+    /**
+     * Removes an element from the set.
+     *
+     * @param element - The element.
+     * @return True if the element was removed, false if it was not present.
+     */
+    public boolean remove(T element) {
+        var hash = getHash(element);
+        var list = hashTable[hash];
+        if (list == null || !list.remove(element)) {
+            return false;
+        }
+        size -= 1;
+        if (list.isEmpty()) {
+            hashTable[hash] = null;
+            // Move the last used bucket into the place of the emptied one.
+            int position = usedBucketPositions[hash];
+            int last = usedBuckets[--usedBucketCount];
+            usedBuckets[position] = last;
+            usedBucketPositions[last] = position;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of elements, which is kept up to date by the insertions and removals.
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -62,7 +127,374 @@ public class Set<T> {
      * @return A list of values.
      */
     public List<T> getValues() {
-        return this.values.stream().flatMap(hash -> this.hashTable[hash].stream()).collect(Collectors.toList());
+        List<T> values = new ArrayList<>(size);
+        forEachElement(values::add);
+        return values;
+    }
+
+    /**
+     * Returns an iterator walking the used buckets in place.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new BucketIterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        forEachElement(action);
+    }
+
+    /**
+     * Returns a spliterator over the buckets. It knows the exact number of elements and splits by halving the range of
+     * buckets, so a parallel stream spreads a large set evenly without copying it.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new BucketSpliterator(0, usedBucketCount, size, true);
+    }
+
+    /**
+     * Returns a sequential stream of the elements, call {@link Stream#parallel()} on it for a parallel one.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a new set holding the elements of both sets. The larger set is copied bucket by bucket and the elements
+     * of the smaller set which are missing from it are inserted.
+     *
+     * @param other - The other set.
+     * @return The union, with the capacity of the larger set.
+     */
+    public Set<T> union(Set<T> other) {
+        Set<T> larger = size >= other.size ? this : other;
+        Set<T> smaller = larger == this ? other : this;
+        Set<T> result = larger.copy();
+        smaller.forEachElement(result::insert);
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements of both sets, the elements of the smaller set are checked against the
+     * larger set in parallel.
+     *
+     * @param pool  - The pool which runs the checks.
+     * @param other - The other set.
+     * @return The union, with the capacity of the larger set.
+     */
+    public Set<T> union(ForkJoinPool pool, Set<T> other) {
+        Set<T> larger = size >= other.size ? this : other;
+        Set<T> smaller = larger == this ? other : this;
+        List<List<T>> missing = smaller.filterParallel(pool, element -> !larger.contains(element));
+        Set<T> result = larger.copy();
+        missing.forEach(elements -> elements.forEach(result::insertAbsent));
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements present in both sets. The smaller set is iterated and every element is
+     * looked up in the larger one.
+     *
+     * @param other - The other set.
+     * @return The intersection, with the capacity of the smaller set.
+     */
+    public Set<T> intersect(Set<T> other) {
+        Set<T> smaller = size <= other.size ? this : other;
+        Set<T> larger = smaller == this ? other : this;
+        Set<T> result = new Set<>(smaller.capacity);
+        smaller.forEachElement(element -> {
+            if (larger.contains(element)) {
+                result.insertAbsent(element);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements present in both sets, the elements of the smaller set are looked up in
+     * the larger set in parallel.
+     *
+     * @param pool  - The pool which runs the lookups.
+     * @param other - The other set.
+     * @return The intersection, with the capacity of the smaller set.
+     */
+    public Set<T> intersect(ForkJoinPool pool, Set<T> other) {
+        Set<T> smaller = size <= other.size ? this : other;
+        Set<T> larger = smaller == this ? other : this;
+        Set<T> result = new Set<>(smaller.capacity);
+        smaller.filterParallel(pool, larger::contains).forEach(elements -> elements.forEach(result::insertAbsent));
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements of this set which are not in the other set. Every element of this set has
+     * to be looked up, whatever the size of the other set.
+     *
+     * @param other - The other set.
+     * @return The difference, with the capacity of this set.
+     */
+    public Set<T> difference(Set<T> other) {
+        Set<T> result = new Set<>(capacity);
+        forEachElement(element -> {
+            if (!other.contains(element)) {
+                result.insertAbsent(element);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns a new set holding the elements of this set which are not in the other set, the elements are looked up in
+     * parallel.
+     *
+     * @param pool  - The pool which runs the lookups.
+     * @param other - The other set.
+     * @return The difference, with the capacity of this set.
+     */
+    public Set<T> difference(ForkJoinPool pool, Set<T> other) {
+        Set<T> result = new Set<>(capacity);
+        filterParallel(pool, element -> !other.contains(element)).forEach(elements -> elements.forEach(result::insertAbsent));
+        return result;
+    }
+
+    /**
+     * Inserts all the elements of the other set into this set, the in place union.
+     *
+     * @param other - The other set.
+     * @return True if this set changed.
+     */
+    public boolean addAll(Set<T> other) {
+        int oldSize = size;
+        other.forEachElement(this::insert);
+        return size != oldSize;
+    }
+
+    /**
+     * Keeps only the elements of this set which are in the other set, the in place intersection.
+     * <p>
+     * When the other set is smaller the intersection is collected by iterating it and this set is refilled with it,
+     * otherwise the elements of this set which are missing from the other set are dropped bucket by bucket.
+     *
+     * @param other - The other set.
+     * @return True if this set changed.
+     */
+    public boolean retainAll(Set<T> other) {
+        int oldSize = size;
+        if (other.size < size) {
+            List<T> retained = new ArrayList<>(other.size);
+            other.forEachElement(element -> {
+                if (contains(element)) {
+                    retained.add(element);
+                }
+            });
+            clear();
+            retained.forEach(this::insertAbsent);
+        } else {
+            removeIf(element -> !other.contains(element));
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * Removes the elements of the other set from this set, the in place difference. The smaller of the two sets is
+     * iterated.
+     *
+     * @param other - The other set.
+     * @return True if this set changed.
+     */
+    public boolean removeAll(Set<T> other) {
+        int oldSize = size;
+        if (other.size < size) {
+            other.forEachElement(this::remove);
+        } else {
+            removeIf(other::contains);
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * Calls the action for every element, walking the used buckets directly.
+     */
+    private void forEachElement(Consumer<? super T> action) {
+        for (int i = 0; i < usedBucketCount; i++) {
+            for (T element : hashTable[usedBuckets[i]]) {
+                action.accept(element);
+            }
+        }
+    }
+
+    /**
+     * Collects the elements matching the predicate, the used buckets are split into chunks tested in parallel.
+     *
+     * @return The matching elements of every chunk, in bucket order.
+     */
+    private List<List<T>> filterParallel(ForkJoinPool pool, Predicate<? super T> predicate) {
+        int chunks = pool.getParallelism() * 4;
+        int chunkSize = (usedBucketCount + chunks - 1) / chunks;
+        return pool.submit(() -> IntStream.range(0, chunks)
+                .parallel()
+                .filter(chunk -> chunk * chunkSize < usedBucketCount)
+                .mapToObj(chunk -> {
+                    List<T> matches = new ArrayList<>();
+                    for (int i = chunk * chunkSize; i < Math.min(usedBucketCount, (chunk + 1) * chunkSize); i++) {
+                        for (T element : hashTable[usedBuckets[i]]) {
+                            if (predicate.test(element)) {
+                                matches.add(element);
+                            }
+                        }
+                    }
+                    return matches;
+                })
+                .toList()
+        ).join();
+    }
+
+    /**
+     * Removes the elements matching the predicate and the buckets left empty.
+     */
+    private void removeIf(Predicate<? super T> predicate) {
+        int kept = 0;
+        for (int i = 0; i < usedBucketCount; i++) {
+            int hash = usedBuckets[i];
+            var list = hashTable[hash];
+            int oldSize = list.size();
+            list.removeIf(predicate);
+            size -= oldSize - list.size();
+            if (list.isEmpty()) {
+                hashTable[hash] = null;
+            } else {
+                usedBucketPositions[hash] = kept;
+                usedBuckets[kept++] = hash;
+            }
+        }
+        usedBucketCount = kept;
+    }
+
+    private void clear() {
+        for (int i = 0; i < usedBucketCount; i++) {
+            hashTable[usedBuckets[i]] = null;
+        }
+        usedBucketCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the set with the same capacity, the buckets are copied without hashing the elements again.
+     */
+    private Set<T> copy() {
+        Set<T> copy = new Set<>(capacity);
+        for (int i = 0; i < usedBucketCount; i++) {
+            copy.hashTable[usedBuckets[i]] = new ArrayList<>(hashTable[usedBuckets[i]]);
+        }
+        copy.usedBuckets = usedBuckets.clone();
+        copy.usedBucketPositions = usedBucketPositions.clone();
+        copy.usedBucketCount = usedBucketCount;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * BucketIterator walks the elements of the used buckets in place.
+     */
+    private class BucketIterator implements Iterator<T> {
+        private int bucket = 0;
+        private int element = 0;
+
+        @Override
+        public boolean hasNext() {
+            return bucket < usedBucketCount;
+        }
+
+        @Override
+        public T next() {
+            if (bucket >= usedBucketCount) {
+                throw new NoSuchElementException();
+            }
+            var list = hashTable[usedBuckets[bucket]];
+            T value = list.get(element++);
+            if (element == list.size()) {
+                bucket += 1;
+                element = 0;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * BucketSpliterator walks the elements of a range of used buckets in place.
+     * <p>
+     * Only the spliterator of the whole set knows its exact size, the sizes of the split ranges are estimated from the
+     * number of buckets they cover, like the spliterators of {@link java.util.HashMap}.
+     */
+    private class BucketSpliterator implements Spliterator<T> {
+        private int bucket;
+        private int element = 0;
+        private int end;
+        private long estimatedSize;
+        private boolean exact;
+
+        private BucketSpliterator(int bucket, int end, long estimatedSize, boolean exact) {
+            this.bucket = bucket;
+            this.end = end;
+            this.estimatedSize = estimatedSize;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (bucket >= end) {
+                return false;
+            }
+            var list = hashTable[usedBuckets[bucket]];
+            action.accept(list.get(element++));
+            if (element == list.size()) {
+                bucket += 1;
+                element = 0;
+            }
+            estimatedSize = Math.max(0, estimatedSize - 1);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (; bucket < end; bucket++) {
+                var list = hashTable[usedBuckets[bucket]];
+                for (; element < list.size(); element++) {
+                    action.accept(list.get(element));
+                }
+                element = 0;
+            }
+            estimatedSize = 0;
+        }
+
+        /**
+         * Hands the upper half of the remaining buckets to a new spliterator, the bucket being walked stays here.
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            int middle = (bucket + end) >>> 1;
+            if (middle <= bucket) {
+                return null;
+            }
+            long splitSize = estimatedSize * (end - middle) / (end - bucket);
+            var split = new BucketSpliterator(middle, end, splitSize, false);
+            end = middle;
+            estimatedSize -= splitSize;
+            exact = false;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | (exact ? SIZED : 0);
+        }
     }
 
     private int getHash(T element) {
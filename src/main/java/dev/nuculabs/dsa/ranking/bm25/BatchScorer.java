@@ -0,0 +1,57 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.Optional;
+
+/**
+ * BatchScorer computes the bm25+ RSV of a term for a block of postings at once.
+ * <p>
+ * The postings are given as columns, the term frequencies and the length normalizations of the documents, so the
+ * formula runs as a tight loop over primitive arrays which the JIT can auto-vectorize. A scorer computes the formula in
+ * the same order as the searcher does for a single document, so it gives the same scores, bit for bit.
+ */
+interface BatchScorer {
+    /**
+     * Computes the RSV of the first length postings.
+     *
+     * @param inverseDocumentFrequencyLog - The log10 of the term's IDF.
+     * @param termFrequencies             - The term frequencies.
+     * @param lengthNormalizations        - The length normalizations of the documents.
+     * @param scores                      - The computed RSVs.
+     * @param length                      - The number of postings.
+     */
+    void score(double inverseDocumentFrequencyLog, double[] termFrequencies, double[] lengthNormalizations, double[] scores, int length);
+
+    /**
+     * Returns the fastest scorer the JVM supports, the vectorized scorer if it can be loaded, otherwise the scalar one.
+     *
+     * @param k1    - The k1 tuning parameter.
+     * @param delta - The delta tuning parameter.
+     */
+    static BatchScorer create(double k1, double delta) {
+        return vectorized(k1, delta).orElseGet(() -> new ScalarBatchScorer(k1, delta));
+    }
+
+    /**
+     * Returns the scorer which uses the Vector API.
+     * <p>
+     * The scorer is compiled in the vector source set, apart from the main classes, so it is loaded by name. It is
+     * missing when the JVM wasn't started with {@code --add-modules jdk.incubator.vector} or the vector classes aren't
+     * on the class path.
+     *
+     * @param k1    - The k1 tuning parameter.
+     * @param delta - The delta tuning parameter.
+     */
+    static Optional<BatchScorer> vectorized(double k1, double delta) {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Class<? extends BatchScorer> type = Class.forName("dev.nuculabs.dsa.ranking.bm25.VectorBatchScorer")
+                    .asSubclass(BatchScorer.class);
+            return Optional.of(type.getDeclaredConstructor(double.class, double.class).newInstance(k1, delta));
+        } catch (ReflectiveOperationException | LinkageError error) {
+            // Fall back to the scalar scorer.
+            return Optional.empty();
+        }
+    }
+}
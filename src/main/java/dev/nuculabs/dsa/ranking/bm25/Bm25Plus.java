@@ -1,67 +1,165 @@
 package dev.nuculabs.dsa.ranking.bm25;
 
+import dev.nuculabs.dsa.ranking.bm25.metrics.IndexMetrics;
+import dev.nuculabs.dsa.ranking.bm25.metrics.MetricsListener;
 import utils.Pair;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Implements the BM25+ ranking algorithm.
  */
 public class Bm25Plus {
     /**
-     * The storage holds a mapping of document id -> document.
+     * The storage holds the documents, a document's position in the storage is its ordinal.
+     * <p>
+     * The ordinals are dense and increase with every indexed document, the posting lists reference documents by them.
      */
-    final private HashMap<Integer, TokenizedDocument> storage = new HashMap<>();
+    final private ArrayList<TokenizedDocument> storage = new ArrayList<>();
 
     /**
-     * The term frequency index holds a mapping of term -> list of documents in which the term occurs.
+     * The ordinals hold a mapping of document id -> document ordinal.
      */
-    final private HashMap<String, Set<Integer>> termFrequencyIndex = new HashMap<>();
+    final private HashMap<Integer, Integer> ordinals = new HashMap<>();
 
     /**
-     * The tuning parameters are used to tune the result of the algorithm.
-     * <p>
-     * These values were taken directly from the paper.
+     * The dictionary maps every indexed term to its id.
+     */
+    final private TermDictionary dictionary = new TermDictionary();
+
+    /**
+     * The term frequency index holds a mapping of term id -> postings of the documents in which the term occurs.
+     */
+    final private ArrayList<PostingList> termFrequencyIndex = new ArrayList<>();
+
+    /**
+     * The tombstones of the deleted documents, by ordinal. A deleted document stays in the storage and in the posting
+     * lists until the index is compacted, the queries skip it.
      */
-    final private Double tuningParameterB = 0.3;
-    final private Double tuningParameterK1 = 1.6;
-    final private Double tuningParameterDelta = 0.7;
+    final private BitSet deletedDocuments = new BitSet();
+
+    /**
+     * The number of deleted documents in the posting list of every term, by term id.
+     */
+    private int[] deletedPostings = new int[0];
+
+    /**
+     * The searcher executes the queries against the index.
+     */
+    final private Bm25PlusSearcher searcher = new Bm25PlusSearcher(new Reader());
+
     private Integer totalTokens = 0;
     private Double meanDocumentLengths = 0.0;
+    private int maxDocumentLength = 0;
+
+    /**
+     * The number of batches read ahead of the index when ingesting a file.
+     */
+    private static final int INGEST_QUEUE_CAPACITY = 2;
+
+    /**
+     * The version is incremented every time documents are indexed.
+     */
+    private long version = 0;
+
+    /**
+     * The cache of the term and terms query results, null if the results are not cached.
+     */
+    final private QueryResultCache resultCache;
+
+    /**
+     * The listener of the index and query measurements, null when nothing is measured.
+     */
+    private volatile MetricsListener metricsListener = null;
+
+    /**
+     * Constructs an index which doesn't cache the query results.
+     */
+    public Bm25Plus() {
+        this.resultCache = null;
+    }
+
+    /**
+     * Constructs an index which caches the results of the term, terms and top k queries.
+     * <p>
+     * The cached results are dropped every time the index changes, so the cache pays off when the same queries are
+     * repeated between the changes.
+     *
+     * @param resultCacheCapacity - The maximum number of cached queries.
+     */
+    public Bm25Plus(int resultCacheCapacity) {
+        this.resultCache = new QueryResultCache(resultCacheCapacity);
+    }
+
+    /**
+     * Returns the cache of the query results, empty if the index doesn't cache them.
+     */
+    public Optional<QueryResultCache> getResultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
+    /**
+     * Sets the listener of the index and query measurements, which receives the latency of every index operation and
+     * query, the postings scanned and the candidates scored by the queries and the result cache lookups.
+     * <p>
+     * Without a listener, the default, the index doesn't read the clock and the measurements cost a volatile read per
+     * operation. Use a {@link dev.nuculabs.dsa.ranking.bm25.metrics.MetricsRecorder} to aggregate the measurements or
+     * a {@link dev.nuculabs.dsa.ranking.bm25.metrics.JfrMetricsListener} to record them as flight recorder events.
+     *
+     * @param listener - The listener, null to stop measuring.
+     */
+    public void setMetricsListener(MetricsListener listener) {
+        this.metricsListener = listener;
+        searcher.setMetricsListener(listener);
+        if (resultCache != null) {
+            resultCache.setMetricsListener(listener);
+        }
+    }
 
     /**
      * Returns the index size.
      */
     public int getIndexSize() {
-        return storage.size();
+        return ordinals.size();
     }
 
     /**
      * Indexes a document
      */
     public void index(Document document) {
+        // Document already exists in index
+        if (ordinals.containsKey(document.documentId())) {
+            return;
+        }
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+
         // Tokenize the document, for educational purposes and simplicity we will consider tokens only
-        // the words delimited by a space and transform them into lowercase.
-        TokenizedDocument tokenizedDocument = TokenizedDocument.fromDocument(document);
-
-        // Document does not exist in index
-        if (!storage.containsKey(document.documentId())) {
-            storage.put(document.documentId(), tokenizedDocument);
-
-            totalTokens += tokenizedDocument.getTokens().size();
-            meanDocumentLengths = (double) totalTokens / storage.size();
-
-            // Index all tokens
-            for (String token : tokenizedDocument.getTokens()) {
-                if (termFrequencyIndex.containsKey(token.toLowerCase())) {
-                    termFrequencyIndex.get(token.toLowerCase()).add(document.documentId());
-                } else {
-                    Set<Integer> documentIds = new HashSet<>();
-                    documentIds.add(document.documentId());
-                    termFrequencyIndex.put(token.toLowerCase(), documentIds);
-                }
-            }
+        // the words delimited by whitespace and transform them into lowercase.
+        TokenizedDocument tokenizedDocument = TokenizedDocument.fromDocument(document, dictionary);
+        long tokenizationNanos = listener != null ? System.nanoTime() - start : 0;
+        int ordinal = storage.size();
+
+        storage.add(tokenizedDocument);
+        ordinals.put(document.documentId(), ordinal);
+
+        totalTokens += tokenizedDocument.getLength();
+        meanDocumentLengths = (double) totalTokens / ordinals.size();
+        maxDocumentLength = Math.max(maxDocumentLength, tokenizedDocument.getLength());
+
+        addPostings(termFrequencyIndex, tokenizedDocument, ordinal);
+        version += 1;
+        if (listener != null) {
+            listener.onIndex(new IndexMetrics(1, tokenizedDocument.getLength(), tokenizationNanos, System.nanoTime() - start));
         }
     }
 
@@ -75,31 +173,412 @@ public class Bm25Plus {
     }
 
     /**
-     * Executes a term query against the index and ranks the results using bm25+.
+     * Indexes all documents in bulk, in parallel on the common fork join pool.
      *
-     * @param term - The term
+     * @param documents - The documents.
      */
-    public List<Pair<Double, Document>> termQuery(String term) {
-        Set<Integer> documentIds = termFrequencyIndex.get(term.toLowerCase());
-        if (documentIds == null) {
-            return Collections.emptyList();
+    public void bulkIndex(Document... documents) {
+        bulkIndex(ForkJoinPool.commonPool(), documents);
+    }
+
+    /**
+     * Indexes all documents in bulk, in parallel on the given pool.
+     * <p>
+     * The documents are de-duplicated by id first, the first occurrence wins like with {@link #index(Document)}. They
+     * are then split in chunks of consecutive ordinals and every chunk is tokenized into a partial index in parallel.
+     * Since each chunk covers higher ordinals than the previous one, the partial posting lists of a term are merged by
+     * appending them in chunk order, and different terms are merged in parallel. The resulting index is the same as
+     * the one built by {@link #indexAll(Document...)}.
+     *
+     * @param pool      - The pool which runs the tokenization and the merge.
+     * @param documents - The documents.
+     */
+    public void bulkIndex(ForkJoinPool pool, Document... documents) {
+        bulkIndex(pool, Arrays.asList(documents), null, null);
+    }
+
+    /**
+     * Indexes all documents in bulk, see {@link #bulkIndex(ForkJoinPool, Document...)}.
+     *
+     * @param pool      - The pool which runs the tokenization and the merge.
+     * @param documents - The documents.
+     * @param source    - The file the documents were read from, null to keep their text in memory.
+     * @param offsets   - The offsets of the documents in the source file, null to keep their text in memory.
+     */
+    private void bulkIndex(ForkJoinPool pool, List<Document> documents, DocumentFile source, long[] offsets) {
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+        HashSet<Integer> documentIds = new HashSet<>();
+        List<Document> uniqueDocuments = new ArrayList<>(documents.size());
+        long[] uniqueOffsets = offsets != null ? new long[documents.size()] : null;
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            if (!ordinals.containsKey(document.documentId()) && documentIds.add(document.documentId())) {
+                if (uniqueOffsets != null) {
+                    uniqueOffsets[uniqueDocuments.size()] = offsets[i];
+                }
+                uniqueDocuments.add(document);
+            }
+        }
+        if (uniqueDocuments.isEmpty()) {
+            return;
+        }
+
+        int firstOrdinal = storage.size();
+        int chunks = pool.getParallelism() * 4;
+        int chunkSize = (uniqueDocuments.size() + chunks - 1) / chunks;
+        List<PartialIndex> partialIndexes = pool.submit(() -> IntStream.range(0, chunks)
+                .parallel()
+                .filter(chunk -> chunk * chunkSize < uniqueDocuments.size())
+                .mapToObj(chunk -> PartialIndex.build(
+                        uniqueDocuments.subList(chunk * chunkSize, Math.min(uniqueDocuments.size(), (chunk + 1) * chunkSize)),
+                        firstOrdinal + chunk * chunkSize
+                ))
+                .toList()
+        ).join();
+        long tokenizationNanos = listener != null ? System.nanoTime() - start : 0;
+
+        // Every chunk has its own dictionary. Map its term ids to the ids of the index dictionary and collect the
+        // parts of every term in chunk order. A new term adopts its first part instead of copying it.
+        HashMap<Integer, List<PostingList>> termParts = new HashMap<>();
+        List<int[]> termIdMappings = new ArrayList<>(partialIndexes.size());
+        long tokens = 0;
+        for (PartialIndex partialIndex : partialIndexes) {
+            storage.addAll(partialIndex.documents());
+            totalTokens += partialIndex.tokens();
+            tokens += partialIndex.tokens();
+            maxDocumentLength = Math.max(maxDocumentLength, partialIndex.maxDocumentLength());
+
+            int[] termIds = new int[partialIndex.dictionary().size()];
+            for (int chunkTermId = 0; chunkTermId < termIds.length; chunkTermId++) {
+                termIds[chunkTermId] = dictionary.getOrAdd(partialIndex.dictionary().getTerm(chunkTermId));
+                termParts.computeIfAbsent(termIds[chunkTermId], k -> new ArrayList<>()).add(partialIndex.postings().get(chunkTermId));
+            }
+            termIdMappings.add(termIds);
+        }
+        while (termFrequencyIndex.size() < dictionary.size()) {
+            termFrequencyIndex.add(null);
+        }
+        List<Pair<PostingList, List<PostingList>>> merges = new ArrayList<>();
+        termParts.forEach((termId, parts) -> {
+            PostingList postingList = termFrequencyIndex.get(termId);
+            int firstPart = 0;
+            if (postingList == null) {
+                postingList = parts.get(0);
+                termFrequencyIndex.set(termId, postingList);
+                firstPart = 1;
+            }
+            if (firstPart < parts.size()) {
+                merges.add(new Pair<>(postingList, parts.subList(firstPart, parts.size())));
+            }
+        });
+        pool.submit(() -> {
+            merges.parallelStream().forEach(merge -> merge.second().forEach(merge.first()::addAll));
+            IntStream.range(0, partialIndexes.size()).parallel().forEach(chunk ->
+                    partialIndexes.get(chunk).documents().forEach(document -> document.remapTokenIds(termIdMappings.get(chunk)))
+            );
+        }).join();
+
+        for (int i = 0; i < uniqueDocuments.size(); i++) {
+            ordinals.put(uniqueDocuments.get(i).documentId(), firstOrdinal + i);
+            if (source != null) {
+                storage.get(firstOrdinal + i).dropText(source, uniqueOffsets[i]);
+            }
+        }
+        meanDocumentLengths = (double) totalTokens / ordinals.size();
+        version += 1;
+        if (listener != null) {
+            listener.onIndex(new IndexMetrics(uniqueDocuments.size(), tokens, tokenizationNanos, System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Indexes the documents of an iterator in batches, in parallel on the common fork join pool.
+     * <p>
+     * The iterator is consumed a batch at a time and every batch is committed with a bulk index before the next one is
+     * read, so only a batch of documents is held in memory at once and the source is read only as fast as the index
+     * can keep up. The queries see the documents of every committed batch.
+     *
+     * @param documents - The documents.
+     * @param batchSize - The number of documents committed at once.
+     * @return The number of documents read.
+     */
+    public long ingest(Iterator<Document> documents, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        long count = 0;
+        List<Document> batch = new ArrayList<>(batchSize);
+        while (documents.hasNext()) {
+            batch.add(documents.next());
+            if (batch.size() == batchSize || !documents.hasNext()) {
+                bulkIndex(ForkJoinPool.commonPool(), batch, null, null);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indexes the documents of a stream in batches, see {@link #ingest(Iterator, int)}.
+     *
+     * @param documents - The documents.
+     * @param batchSize - The number of documents committed at once.
+     * @return The number of documents read.
+     */
+    public long ingest(Stream<Document> documents, int batchSize) {
+        return ingest(documents.iterator(), batchSize);
+    }
+
+    /**
+     * Indexes the documents of a file in batches.
+     * <p>
+     * A reader thread reads and parses the file while the calling thread commits the batches with a bulk index. The
+     * two are connected by a queue of at most {@link #INGEST_QUEUE_CAPACITY} batches: once it is full the reader
+     * blocks until the index catches up, which bounds the memory used by the ingestion.
+     * <p>
+     * When the text is not stored, the index keeps only the id of every document and the offset of its line in the
+     * file, and reads the document back from the file when a query returns it. The file must then stay in place,
+     * unchanged and open for as long as the index is used.
+     *
+     * @param file      - The file.
+     * @param batchSize - The number of documents committed at once.
+     * @param storeText - Whether the text of the documents is kept in memory.
+     * @return The number of documents read.
+     */
+    public long ingest(DocumentFile file, int batchSize, boolean storeText) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        BlockingQueue<IngestBatch> batches = new ArrayBlockingQueue<>(INGEST_QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> readBatches(file, batchSize, batches, failure), "bm25-ingest-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long count = 0;
+        try {
+            for (IngestBatch batch = batches.take(); !batch.documents().isEmpty(); batch = batches.take()) {
+                bulkIndex(ForkJoinPool.commonPool(), batch.documents(), storeText ? null : file, storeText ? null : batch.offsets());
+                count += batch.documents().size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while ingesting " + file.getPath(), e);
+        } finally {
+            reader.interrupt();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        } else if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (cause != null) {
+            throw new IOException("failed to read " + file.getPath(), cause);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the file in batches into the queue, an empty batch marks the end of the file or a failure.
+     */
+    private static void readBatches(DocumentFile file, int batchSize, BlockingQueue<IngestBatch> batches, AtomicReference<Throwable> failure) {
+        try {
+            DocumentFile.LineReader lines = file.openReader();
+            List<Document> documents = new ArrayList<>(batchSize);
+            long[] offsets = new long[batchSize];
+            while (lines.next()) {
+                offsets[documents.size()] = lines.offset();
+                documents.add(lines.document());
+                if (documents.size() == batchSize) {
+                    batches.put(new IngestBatch(documents, offsets));
+                    documents = new ArrayList<>(batchSize);
+                    offsets = new long[batchSize];
+                }
+            }
+            if (!documents.isEmpty()) {
+                batches.put(new IngestBatch(documents, offsets));
+            }
+        } catch (InterruptedException e) {
+            // The ingestion was abandoned, nobody waits for the end marker.
+            return;
+        } catch (Throwable throwable) {
+            failure.set(throwable);
+        }
+        try {
+            batches.put(new IngestBatch(List.of(), new long[0]));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * IngestBatch is a batch of documents read from a file.
+     *
+     * @param documents - The documents.
+     * @param offsets   - The offsets of the documents' lines in the file.
+     */
+    private record IngestBatch(List<Document> documents, long[] offsets) {
+    }
+
+    /**
+     * Deletes a document.
+     * <p>
+     * The document is marked with a tombstone and removed from the collection statistics right away, so the scores
+     * are the same as if it had never been indexed. Its postings are reclaimed by {@link #compact()}.
+     *
+     * @param documentId - The document id.
+     * @return True if the document was deleted, false if it was not in the index.
+     */
+    public boolean delete(int documentId) {
+        Integer ordinal = ordinals.remove(documentId);
+        if (ordinal == null) {
+            return false;
         }
+        TokenizedDocument tokenizedDocument = storage.get(ordinal);
+        deletedDocuments.set(ordinal);
 
-        List<Pair<Double, Document>> results = new ArrayList<>();
+        totalTokens -= tokenizedDocument.getLength();
+        meanDocumentLengths = ordinals.isEmpty() ? 0.0 : (double) totalTokens / ordinals.size();
 
-        for (Integer id : documentIds) {
-            TokenizedDocument document = storage.get(id);
-            if (document == null) {
+        if (deletedPostings.length < termFrequencyIndex.size()) {
+            deletedPostings = Arrays.copyOf(deletedPostings, termFrequencyIndex.size());
+        }
+        for (int termId : tokenizedDocument.getDistinctTokenIds()) {
+            deletedPostings[termId] += 1;
+        }
+        version += 1;
+        return true;
+    }
+
+    /**
+     * Updates a document, the document with the same id is replaced or the document is indexed if it is missing.
+     *
+     * @param document - The new version of the document.
+     */
+    public void update(Document document) {
+        delete(document.documentId());
+        index(document);
+    }
+
+    /**
+     * Compacts the index, reclaiming the storage and the postings of the deleted documents.
+     * <p>
+     * The live documents get new dense ordinals, in the same order, and the posting lists are rewritten without the
+     * deleted documents. The scores don't change, the deleted documents are already left out of the statistics.
+     */
+    public void compact() {
+        if (deletedDocuments.isEmpty()) {
+            return;
+        }
+
+        int[] newOrdinals = new int[storage.size()];
+        ArrayList<TokenizedDocument> liveDocuments = new ArrayList<>(ordinals.size());
+        maxDocumentLength = 0;
+        for (int ordinal = 0; ordinal < storage.size(); ordinal++) {
+            if (deletedDocuments.get(ordinal)) {
+                newOrdinals[ordinal] = -1;
                 continue;
             }
-            double documentRsv = computeRsv(term.toLowerCase(), document);
-            results.add(new Pair<>(documentRsv, document.getDocument()));
+            TokenizedDocument tokenizedDocument = storage.get(ordinal);
+            newOrdinals[ordinal] = liveDocuments.size();
+            ordinals.put(tokenizedDocument.getDocumentId(), liveDocuments.size());
+            liveDocuments.add(tokenizedDocument);
+            maxDocumentLength = Math.max(maxDocumentLength, tokenizedDocument.getLength());
         }
 
-        results.removeIf(entry -> !Double.isFinite(entry.first()));
-        results.sort((a, b) -> Double.compare(b.first(), a.first()));
+        for (int termId = 0; termId < termFrequencyIndex.size(); termId++) {
+            PostingList compacted = new PostingList(true);
+            PostingList.Cursor cursor = termFrequencyIndex.get(termId).cursor();
+            while (cursor.next() != PostingList.NO_MORE_DOCUMENTS) {
+                int ordinal = newOrdinals[cursor.document()];
+                if (ordinal >= 0) {
+                    compacted.add(ordinal, cursor.positions(), cursor.termFrequency(), liveDocuments.get(ordinal).getLength());
+                }
+            }
+            termFrequencyIndex.set(termId, compacted);
+        }
 
-        return results;
+        storage.clear();
+        storage.addAll(liveDocuments);
+        deletedDocuments.clear();
+        deletedPostings = new int[0];
+        version += 1;
+    }
+
+    /**
+     * Counts the term frequencies of the document once, then adds a single posting per term to the index, along with
+     * the positions at which the term occurs.
+     * <p>
+     * The frequencies are counted by sorting the token ids paired with their positions, the equal ids end up next to
+     * each other with their positions in increasing order.
+     */
+    static void addPostings(List<PostingList> termFrequencyIndex, TokenizedDocument tokenizedDocument, int ordinal) {
+        int documentLength = tokenizedDocument.getLength();
+        int[] tokenIds = tokenizedDocument.getTokenIds();
+        long[] tokens = new long[tokenIds.length];
+        for (int position = 0; position < tokenIds.length; position++) {
+            tokens[position] = (long) tokenIds[position] << 32 | position;
+        }
+        Arrays.sort(tokens);
+
+        int[] positions = new int[tokens.length];
+        int start = 0;
+        while (start < tokens.length) {
+            int termId = (int) (tokens[start] >>> 32);
+            int end = start;
+            while (end < tokens.length && (int) (tokens[end] >>> 32) == termId) {
+                positions[end - start] = (int) tokens[end];
+                end += 1;
+            }
+            while (termFrequencyIndex.size() <= termId) {
+                termFrequencyIndex.add(new PostingList(true));
+            }
+            termFrequencyIndex.get(termId).add(ordinal, positions, end - start, documentLength);
+            start = end;
+        }
+    }
+
+    /**
+     * PartialIndex is the index of a chunk of documents built during a bulk index.
+     *
+     * @param documents  - The tokenized documents of the chunk.
+     * @param tokens     - The number of tokens of the chunk.
+     * @param maxDocumentLength - The length of the longest document of the chunk.
+     * @param dictionary - The dictionary of the chunk.
+     * @param postings   - The posting lists of the chunk, by chunk term id.
+     */
+    private record PartialIndex(List<TokenizedDocument> documents, int tokens, int maxDocumentLength, TermDictionary dictionary, List<PostingList> postings) {
+        static PartialIndex build(List<Document> documents, int firstOrdinal) {
+            List<TokenizedDocument> tokenizedDocuments = new ArrayList<>(documents.size());
+            TermDictionary dictionary = new TermDictionary();
+            List<PostingList> postings = new ArrayList<>();
+            int tokens = 0;
+            int maxDocumentLength = 0;
+            for (Document document : documents) {
+                TokenizedDocument tokenizedDocument = TokenizedDocument.fromDocument(document, dictionary);
+                addPostings(postings, tokenizedDocument, firstOrdinal + tokenizedDocuments.size());
+                tokenizedDocuments.add(tokenizedDocument);
+                tokens += tokenizedDocument.getLength();
+                maxDocumentLength = Math.max(maxDocumentLength, tokenizedDocument.getLength());
+            }
+            return new PartialIndex(tokenizedDocuments, tokens, maxDocumentLength, dictionary, postings);
+        }
+    }
+
+    /**
+     * Executes a term query against the index and ranks the results using bm25+.
+     *
+     * @param term - The term
+     */
+    public List<Pair<Double, Document>> termQuery(String term) {
+        if (resultCache != null) {
+            // A term query ranks like a terms query of the term, they share the cached results.
+            return resultCache.get(version, new String[]{term}, 0, () -> searcher.termQuery(term));
+        }
+        return searcher.termQuery(term);
     }
 
     /**
@@ -108,54 +587,151 @@ public class Bm25Plus {
      * @param terms - The terms
      */
     public List<Pair<Double, Document>> termsQuery(String... terms) {
-        var documentIds = Arrays.stream(terms).map(term -> termFrequencyIndex.getOrDefault(term.toLowerCase(), Set.of())).reduce((acc, value) -> {
-            acc.addAll(value);
-            return acc;
-        }).orElse(Set.of());
-
-        var results = documentIds.stream().map(i -> {
-            var document = storage.get(i);
-
-            // Sum the RSV of each term.
-            double rsvSum = 0;
-            for (String term : terms) {
-                rsvSum += computeRsv(term, document);
-            }
+        if (resultCache != null) {
+            return resultCache.get(version, terms, 0, () -> searcher.termsQuery(terms));
+        }
+        return searcher.termsQuery(terms);
+    }
+
+    /**
+     * Executes a terms query against the index and returns only the k best ranked results using bm25+.
+     *
+     * @param k     - The number of results to return.
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> topK(int k, String... terms) {
+        if (resultCache != null && k > 0) {
+            return resultCache.get(version, terms, k, () -> searcher.topK(k, terms));
+        }
+        return searcher.topK(k, terms);
+    }
+
+    /**
+     * Executes a structured query against the index and returns only the k best ranked results using bm25+.
+     *
+     * @param query - The query.
+     * @param k     - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> search(Query query, int k) {
+        return searcher.search(query, k);
+    }
 
-            return new Pair<>(rsvSum, document.getDocument());
-        }).collect(Collectors.toCollection(ArrayList::new));
+    /**
+     * Returns the searcher of the index.
+     */
+    Bm25PlusSearcher getSearcher() {
+        return searcher;
+    }
 
-        results.removeIf(entry -> !Double.isFinite(entry.first()));
-        results.sort((a, b) -> Double.compare(b.first(), a.first()));
+    /**
+     * Returns the total number of tokens of the documents, without the deleted ones.
+     */
+    long getTotalTokens() {
+        return totalTokens;
+    }
 
-        return results;
+    /**
+     * Returns the length of the longest indexed document.
+     */
+    int getMaxDocumentLength() {
+        return maxDocumentLength;
     }
 
     /**
-     * Computes the inverse document frequency for a given term.
+     * Returns the version of the index, it changes every time the index changes.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of documents in which the normalized term occurs, without the deleted ones.
+     *
+     * @param term - The term.
+     */
+    int getDocumentFrequency(String term) {
+        int termId = dictionary.get(term);
+        return termId >= 0 ? getDocumentFrequency(termId) : 0;
+    }
+
+    private int getDocumentFrequency(int termId) {
+        int deleted = termId < deletedPostings.length ? deletedPostings[termId] : 0;
+        return termFrequencyIndex.get(termId).size() - deleted;
+    }
+
+    /**
+     * Writes the index as an immutable segment to the given directory.
      * <p>
-     * The IDF is defined as the total number of documents (N) divided by the documents that contain the term (dft).
-     * In the BM25+ version the IDF is the (N+1)/(dft)
+     * The segment can be opened with {@link Bm25Segment#open(Path)} and serves the same queries without rebuilding the
+     * index. The index is compacted first. A segment already in the directory is replaced atomically, a write which
+     * fails midway, even by a crash, leaves the old segment in place and openable.
+     *
+     * @param directory - The segment directory, it is created if it does not exist.
      */
-    private double computeInverseDocumentFrequency(String term) {
-        int numberOfDocumentsContainingTheTerm = termFrequencyIndex.containsKey(term) ? termFrequencyIndex.get(term).size() : 0;
-        return (storage.size() + 1) / (double) numberOfDocumentsContainingTheTerm;
+    public void writeSegment(Path directory) throws IOException {
+        compact();
+        Bm25Segment.write(new Reader(), dictionary, termFrequencyIndex, totalTokens, directory);
     }
 
     /**
-     * Computes the RSV for the given term and document.
-     * The RSV (Retrieval Status Value) is computed for every document using the BM25+ formula from the paper.
+     * Reader gives the searcher access to the in-memory index.
      */
-    private double computeRsv(String term, TokenizedDocument document) {
-        double inverseDocumentFrequencyLog = Math.log10(computeInverseDocumentFrequency(term));
-        double termOccurringInDocumentFrequency = (double) document.getTokens().stream()
-                .filter(token -> token.equals(term))
-                .count();
-        double documentLength = document.getTokens().size();
+    private class Reader implements IndexReader {
+        @Override
+        public int getIndexSize() {
+            return ordinals.size();
+        }
+
+        @Override
+        public double getMeanDocumentLength() {
+            return meanDocumentLengths;
+        }
 
-        return inverseDocumentFrequencyLog *
-                (((tuningParameterK1 + 1) * termOccurringInDocumentFrequency) /
-                        ((tuningParameterK1 * ((1 - tuningParameterB) + tuningParameterB * (documentLength / meanDocumentLengths))) + termOccurringInDocumentFrequency)
-                        + tuningParameterDelta);
+        @Override
+        public int getMaxDocumentLength() {
+            return maxDocumentLength;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int getTermId(String term) {
+            return dictionary.get(term);
+        }
+
+        @Override
+        public Postings getPostings(int termId) {
+            return termFrequencyIndex.get(termId);
+        }
+
+        @Override
+        public int getDocumentFrequency(int termId) {
+            return Bm25Plus.this.getDocumentFrequency(termId);
+        }
+
+        @Override
+        public boolean isDeleted(int ordinal) {
+            return deletedDocuments.get(ordinal);
+        }
+
+        @Override
+        public int getDocumentLength(int ordinal) {
+            return storage.get(ordinal).getLength();
+        }
+
+        @Override
+        public int getDocumentId(int ordinal) {
+            return storage.get(ordinal).getDocumentId();
+        }
+
+        @Override
+        public Document getDocument(int ordinal) {
+            return storage.get(ordinal).getDocument();
+        }
     }
 }
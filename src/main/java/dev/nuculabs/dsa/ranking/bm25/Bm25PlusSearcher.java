@@ -0,0 +1,722 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import dev.nuculabs.dsa.ranking.bm25.metrics.MetricsListener;
+import dev.nuculabs.dsa.ranking.bm25.metrics.QueryMetrics;
+import utils.Pair;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bm25PlusSearcher executes queries against an index and ranks the results using the BM25+ ranking algorithm.
+ * <p>
+ * It is shared by the in-memory index and by the memory-mapped segments.
+ */
+class Bm25PlusSearcher {
+    final private IndexReader reader;
+
+    /**
+     * The tuning parameters are used to tune the result of the algorithm.
+     * <p>
+     * These values were taken directly from the paper. They are primitives, the formula runs for every posting and
+     * boxed values would be unboxed every time.
+     */
+    final private double tuningParameterB = 0.3;
+    final private double tuningParameterK1 = 1.6;
+    final private double tuningParameterDelta = 0.7;
+
+    /**
+     * Scores the postings of the term queries a block at a time.
+     */
+    final private BatchScorer batchScorer = BatchScorer.create(tuningParameterK1, tuningParameterDelta);
+
+    /**
+     * The length normalization is tabled for the document lengths below this limit, longer documents compute it.
+     */
+    private static final int MAX_TABLED_DOCUMENT_LENGTH = 1 << 16;
+
+    /**
+     * The scoring tables of the latest collection statistics the searcher has seen.
+     */
+    private volatile ScoringTables scoringTables = null;
+
+    /**
+     * The listener of the query measurements, null when the queries are not measured.
+     */
+    private volatile MetricsListener metricsListener = null;
+
+    /**
+     * The document frequencies of the searched index.
+     */
+    private final DocumentFrequencies localDocumentFrequencies;
+
+    /**
+     * Constructs a searcher.
+     *
+     * @param reader - The index reader.
+     */
+    Bm25PlusSearcher(IndexReader reader) {
+        this.reader = reader;
+        this.localDocumentFrequencies = (term, termId) -> termId >= 0 ? reader.getDocumentFrequency(termId) : 0;
+    }
+
+    /**
+     * DocumentFrequencies give the number of documents of the collection in which a term occurs.
+     */
+    interface DocumentFrequencies {
+        /**
+         * Returns the document frequency of a term.
+         *
+         * @param term   - The normalized term.
+         * @param termId - The id of the term in the searched index, -1 if the index doesn't hold the term.
+         */
+        int get(String term, int termId);
+    }
+
+    /**
+     * Sets the listener of the query measurements.
+     * <p>
+     * Without a listener a query only counts the postings it scans and the candidates it scores, it doesn't read the
+     * clock.
+     *
+     * @param listener - The listener, null to stop measuring.
+     */
+    void setMetricsListener(MetricsListener listener) {
+        this.metricsListener = listener;
+    }
+
+    /**
+     * Executes a term query against the index and ranks the results using bm25+.
+     *
+     * @param term - The term
+     */
+    List<Pair<Double, Document>> termQuery(String term) {
+        return termQuery(getLocalStatistics(), localDocumentFrequencies, term);
+    }
+
+    /**
+     * Executes a terms query against the index and ranks the results using bm25+.
+     *
+     * @param terms - The terms
+     */
+    List<Pair<Double, Document>> termsQuery(String... terms) {
+        return termsQuery(getLocalStatistics(), localDocumentFrequencies, terms);
+    }
+
+    /**
+     * Executes a terms query against the index and returns only the k best ranked results using bm25+.
+     *
+     * @param k     - The number of results to return.
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    List<Pair<Double, Document>> topK(int k, String... terms) {
+        return topK(k, getLocalStatistics(), localDocumentFrequencies, terms);
+    }
+
+    /**
+     * Executes a structured query against the index and returns only the k best ranked results using bm25+.
+     *
+     * @param query - The query.
+     * @param k     - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    List<Pair<Double, Document>> search(Query query, int k) {
+        return search(getLocalStatistics(), localDocumentFrequencies, query, k);
+    }
+
+    /**
+     * Executes a term query against the index, scoring with the given collection statistics.
+     *
+     * @param statistics          - The collection statistics.
+     * @param documentFrequencies - The document frequencies of the collection.
+     * @param term                - The term
+     */
+    List<Pair<Double, Document>> termQuery(CollectionStatistics statistics, DocumentFrequencies documentFrequencies, String term) {
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+        String normalizedTerm = Tokenizer.normalize(term);
+        int termId = reader.getTermId(normalizedTerm);
+        if (termId < 0) {
+            if (listener != null) {
+                reportQuery(listener, QueryMetrics.Type.TERM, 1, new PostingList.Cursor[0], 0, 0, System.nanoTime(), start);
+            }
+            return Collections.emptyList();
+        }
+        Postings postings = reader.getPostings(termId);
+        int documentFrequency = documentFrequencies.get(normalizedTerm, termId);
+
+        ScoringTables tables = getScoringTables(statistics);
+        double inverseDocumentFrequencyLog = tables.getInverseDocumentFrequencyLog(termId, documentFrequency);
+        List<Pair<Double, Document>> results = new ArrayList<>(postings.size());
+
+        // Gather the postings into columns a block at a time and score every block in a single batch.
+        int[] documents = new int[PostingList.BLOCK_SIZE];
+        double[] termFrequencies = new double[PostingList.BLOCK_SIZE];
+        double[] lengthNormalizations = new double[PostingList.BLOCK_SIZE];
+        double[] scores = new double[PostingList.BLOCK_SIZE];
+        int length = 0;
+        PostingList.Cursor cursor = postings.cursor();
+        int document = cursor.next();
+        while (document != PostingList.NO_MORE_DOCUMENTS || length > 0) {
+            if (document != PostingList.NO_MORE_DOCUMENTS) {
+                if (!reader.isDeleted(document)) {
+                    documents[length] = document;
+                    termFrequencies[length] = cursor.termFrequency();
+                    lengthNormalizations[length] = tables.getLengthNormalization(reader.getDocumentLength(document));
+                    length += 1;
+                }
+                document = cursor.next();
+            }
+            if (length == PostingList.BLOCK_SIZE || (document == PostingList.NO_MORE_DOCUMENTS && length > 0)) {
+                batchScorer.score(inverseDocumentFrequencyLog, termFrequencies, lengthNormalizations, scores, length);
+                for (int i = 0; i < length; i++) {
+                    results.add(new Pair<>(scores[i], reader.getDocument(documents[i])));
+                }
+                length = 0;
+            }
+        }
+        long candidatesScored = results.size();
+
+        results.removeIf(entry -> !Double.isFinite(entry.first()));
+        long sortStart = listener != null ? System.nanoTime() : 0;
+        results.sort((a, b) -> Double.compare(b.first(), a.first()));
+
+        if (listener != null) {
+            reportQuery(listener, QueryMetrics.Type.TERM, 1, new PostingList.Cursor[]{cursor}, candidatesScored, results.size(), sortStart, start);
+        }
+        return results;
+    }
+
+    /**
+     * Executes a terms query against the index, scoring with the given collection statistics.
+     *
+     * @param statistics          - The collection statistics.
+     * @param documentFrequencies - The document frequencies of the collection.
+     * @param terms               - The terms
+     */
+    List<Pair<Double, Document>> termsQuery(CollectionStatistics statistics, DocumentFrequencies documentFrequencies, String... terms) {
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+        ScoringTables tables = getScoringTables(statistics);
+        String[] normalizedTerms = Tokenizer.normalize(terms);
+        int[] termIds = resolveTermIds(normalizedTerms);
+        Postings[] termPostings = resolvePostings(termIds);
+        double[] inverseDocumentFrequencyLogs = tables.getInverseDocumentFrequencyLogs(normalizedTerms, termIds, documentFrequencies);
+        PostingList.Cursor[] cursors = new PostingList.Cursor[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            cursors[i] = termPostings[i].cursor();
+        }
+        int[] termFrequencies = new int[terms.length];
+
+        // Visit the union of the posting lists document at a time, in increasing document order.
+        List<Pair<Double, Document>> results = new ArrayList<>();
+        int document = nextCandidate(cursors, 0, cursors.length);
+        while (document != PostingList.NO_MORE_DOCUMENTS) {
+            if (reader.isDeleted(document)) {
+                document = nextCandidate(cursors, 0, cursors.length);
+                continue;
+            }
+            for (int i = 0; i < cursors.length; i++) {
+                termFrequencies[i] = cursors[i].document() == document ? cursors[i].termFrequency() : 0;
+            }
+            double lengthNormalization = tables.getLengthNormalization(reader.getDocumentLength(document));
+            double rsvSum = computeDocumentRsv(lengthNormalization, termFrequencies, inverseDocumentFrequencyLogs);
+            results.add(new Pair<>(rsvSum, reader.getDocument(document)));
+
+            document = nextCandidate(cursors, 0, cursors.length);
+        }
+        long candidatesScored = results.size();
+
+        results.removeIf(entry -> !Double.isFinite(entry.first()));
+        long sortStart = listener != null ? System.nanoTime() : 0;
+        results.sort((a, b) -> Double.compare(b.first(), a.first()));
+
+        if (listener != null) {
+            reportQuery(listener, QueryMetrics.Type.TERMS, terms.length, cursors, candidatesScored, results.size(), sortStart, start);
+        }
+        return results;
+    }
+
+    /**
+     * Executes a terms query against the index, scoring with the given collection statistics, and returns only the k
+     * best ranked results.
+     * <p>
+     * The results are kept in a bounded min-heap of size k and the posting lists are visited document at a time using
+     * MaxScore: the lists are ordered by their score upper bound, and the lists whose summed upper bounds can't beat
+     * the k-th result anymore become non-essential. Candidates are taken only from the essential lists, and the
+     * non-essential lists are advanced, skipping whole blocks, only for candidates which can still enter the heap.
+     *
+     * @param k                   - The number of results to return.
+     * @param statistics          - The collection statistics.
+     * @param documentFrequencies - The document frequencies of the collection.
+     * @param terms               - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    List<Pair<Double, Document>> topK(int k, CollectionStatistics statistics, DocumentFrequencies documentFrequencies, String... terms) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+
+        String[] normalizedTerms = Tokenizer.normalize(terms);
+        int[] termIds = resolveTermIds(normalizedTerms);
+        for (int i = 0; i < terms.length; i++) {
+            // An unknown term, or one whose documents were all deleted, has an infinite IDF, which makes every score
+            // non-finite.
+            if (documentFrequencies.get(normalizedTerms[i], termIds[i]) == 0) {
+                if (listener != null) {
+                    reportQuery(listener, QueryMetrics.Type.TOP_K, terms.length, new PostingList.Cursor[0], 0, 0, System.nanoTime(), start);
+                }
+                return Collections.emptyList();
+            }
+        }
+        ScoringTables tables = getScoringTables(statistics);
+        Postings[] termPostings = resolvePostings(termIds);
+        double[] inverseDocumentFrequencyLogs = tables.getInverseDocumentFrequencyLogs(normalizedTerms, termIds, documentFrequencies);
+
+        // Every term contributes at least its delta part and at most its upper bound. Order the terms by the span
+        // between the two, the least promising ones first.
+        double[] lowerBounds = new double[terms.length];
+        double[] upperBounds = new double[terms.length];
+        Integer[] order = new Integer[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            lowerBounds[i] = inverseDocumentFrequencyLogs[i] * tuningParameterDelta;
+            upperBounds[i] = computeRsv(inverseDocumentFrequencyLogs[i], termPostings[i].getMaxTermFrequency(), tables.getLengthNormalization(termPostings[i].getMinDocumentLength()));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> upperBounds[i] - lowerBounds[i]));
+
+        PostingList.Cursor[] cursors = new PostingList.Cursor[terms.length];
+        for (int j = 0; j < terms.length; j++) {
+            cursors[j] = termPostings[order[j]].cursor();
+        }
+        int[] termFrequencies = new int[terms.length];
+
+        Comparator<ScoredDocument> ranking = Comparator
+                .comparingDouble(ScoredDocument::score).reversed()
+                .thenComparingInt(ScoredDocument::documentId);
+        PriorityQueue<ScoredDocument> heap = new PriorityQueue<>(k + 1, ranking.reversed());
+
+        // The lists before firstEssential are non-essential.
+        int firstEssential = 0;
+        long candidatesScored = 0;
+        int document = nextCandidate(cursors, firstEssential, cursors.length);
+        while (document != PostingList.NO_MORE_DOCUMENTS) {
+            if (reader.isDeleted(document)) {
+                document = nextCandidate(cursors, firstEssential, cursors.length);
+                continue;
+            }
+            double lengthNormalization = tables.getLengthNormalization(reader.getDocumentLength(document));
+
+            // Score the essential lists and bound the non-essential ones.
+            double bound = 0;
+            for (int j = firstEssential; j < cursors.length; j++) {
+                int termFrequency = cursors[j].document() == document ? cursors[j].termFrequency() : 0;
+                termFrequencies[order[j]] = termFrequency;
+                bound += computeRsv(inverseDocumentFrequencyLogs[order[j]], termFrequency, lengthNormalization);
+            }
+            for (int j = 0; j < firstEssential; j++) {
+                bound += upperBounds[order[j]];
+            }
+
+            if (heap.size() < k || !canBeSkipped(bound, heap.peek().score())) {
+                for (int j = 0; j < firstEssential; j++) {
+                    termFrequencies[order[j]] = cursors[j].advance(document) == document ? cursors[j].termFrequency() : 0;
+                }
+                double rsvSum = computeDocumentRsv(lengthNormalization, termFrequencies, inverseDocumentFrequencyLogs);
+                candidatesScored += 1;
+                var entry = new ScoredDocument(rsvSum, reader.getDocumentId(document), document);
+                if (heap.size() < k) {
+                    heap.add(entry);
+                } else if (ranking.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+
+                if (heap.size() == k) {
+                    firstEssential = countNonEssential(order, lowerBounds, upperBounds, heap.peek().score());
+                    if (firstEssential == cursors.length) {
+                        break;
+                    }
+                }
+            }
+
+            document = nextCandidate(cursors, firstEssential, cursors.length);
+        }
+
+        long sortStart = listener != null ? System.nanoTime() : 0;
+        List<ScoredDocument> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        List<Pair<Double, Document>> results = new ArrayList<>(ranked.size());
+        for (ScoredDocument scoredDocument : ranked) {
+            results.add(new Pair<>(scoredDocument.score(), reader.getDocument(scoredDocument.ordinal())));
+        }
+        if (listener != null) {
+            reportQuery(listener, QueryMetrics.Type.TOP_K, terms.length, cursors, candidatesScored, results.size(), sortStart, start);
+        }
+        return results;
+    }
+
+    /**
+     * Executes a structured query against the index, scoring with the given collection statistics, and returns only
+     * the k best ranked results.
+     * <p>
+     * The query is turned into a tree of {@link QueryScorer}s which is iterated document at a time. The conjunctions
+     * leapfrog their scorers, advancing each one to the candidate of the others, so the skip entries of the posting
+     * lists let them jump over the documents which can't match.
+     *
+     * @param statistics          - The collection statistics.
+     * @param documentFrequencies - The document frequencies of the collection.
+     * @param query               - The query.
+     * @param k                   - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    List<Pair<Double, Document>> search(CollectionStatistics statistics, DocumentFrequencies documentFrequencies, Query query, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        MetricsListener listener = metricsListener;
+        long start = listener != null ? System.nanoTime() : 0;
+        ScoringTables tables = getScoringTables(statistics);
+        List<PostingList.Cursor> cursors = new ArrayList<>();
+        QueryScorer scorer = createScorer(query, tables, documentFrequencies, cursors);
+        long candidatesScored = 0;
+
+        Comparator<ScoredDocument> ranking = Comparator
+                .comparingDouble(ScoredDocument::score).reversed()
+                .thenComparingInt(ScoredDocument::documentId);
+        PriorityQueue<ScoredDocument> heap = new PriorityQueue<>(k + 1, ranking.reversed());
+        for (int document = scorer.next(); document != PostingList.NO_MORE_DOCUMENTS; document = scorer.next()) {
+            if (reader.isDeleted(document)) {
+                continue;
+            }
+            double score = scorer.score(document, tables.getLengthNormalization(reader.getDocumentLength(document)));
+            candidatesScored += 1;
+            if (!Double.isFinite(score)) {
+                continue;
+            }
+            var entry = new ScoredDocument(score, reader.getDocumentId(document), document);
+            if (heap.size() < k) {
+                heap.add(entry);
+            } else if (ranking.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        long sortStart = listener != null ? System.nanoTime() : 0;
+        List<ScoredDocument> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        List<Pair<Double, Document>> results = new ArrayList<>(ranked.size());
+        for (ScoredDocument scoredDocument : ranked) {
+            results.add(new Pair<>(scoredDocument.score(), reader.getDocument(scoredDocument.ordinal())));
+        }
+        if (listener != null) {
+            reportQuery(listener, QueryMetrics.Type.SEARCH, cursors.size(), cursors.toArray(PostingList.Cursor[]::new), candidatesScored, results.size(), sortStart, start);
+        }
+        return results;
+    }
+
+    /**
+     * Collects the normalized terms of a query, including those of the MUST_NOT clauses.
+     *
+     * @param query - The query.
+     * @param terms - The collected terms.
+     */
+    static void collectTerms(Query query, Collection<String> terms) {
+        if (query instanceof TermQuery termQuery) {
+            terms.add(Tokenizer.normalize(termQuery.term()));
+        } else if (query instanceof PhraseQuery phraseQuery) {
+            phraseQuery.terms().forEach(term -> terms.add(Tokenizer.normalize(term)));
+        } else if (query instanceof BooleanQuery booleanQuery) {
+            booleanQuery.clauses().forEach(clause -> collectTerms(clause.query(), terms));
+        }
+    }
+
+    /**
+     * Builds the scorer tree of a query.
+     */
+    private QueryScorer createScorer(Query query, ScoringTables tables, DocumentFrequencies documentFrequencies, List<PostingList.Cursor> cursors) {
+        if (query instanceof TermQuery termQuery) {
+            String term = Tokenizer.normalize(termQuery.term());
+            int termId = reader.getTermId(term);
+            double inverseDocumentFrequencyLog = tables.getInverseDocumentFrequencyLog(termId, documentFrequencies.get(term, termId));
+            Postings postings = resolvePostings(new int[]{termId})[0];
+            PostingList.Cursor cursor = postings.cursor();
+            cursors.add(cursor);
+            return new QueryScorer.TermScorer(cursor, postings.size(), inverseDocumentFrequencyLog, this::computeRsv);
+        }
+        if (query instanceof PhraseQuery phraseQuery) {
+            String[] terms = Tokenizer.normalize(phraseQuery.terms().toArray(String[]::new));
+            int[] termIds = resolveTermIds(terms);
+            double inverseDocumentFrequencyLog = 0;
+            for (double termInverseDocumentFrequencyLog : tables.getInverseDocumentFrequencyLogs(terms, termIds, documentFrequencies)) {
+                inverseDocumentFrequencyLog += termInverseDocumentFrequencyLog;
+            }
+            Postings[] termPostings = resolvePostings(termIds);
+            PostingList.Cursor[] termCursors = new PostingList.Cursor[termPostings.length];
+            long cost = Long.MAX_VALUE;
+            for (int i = 0; i < termPostings.length; i++) {
+                termCursors[i] = termPostings[i].cursor();
+                cursors.add(termCursors[i]);
+                cost = Math.min(cost, termPostings[i].size());
+            }
+            return new QueryScorer.PhraseScorer(termCursors, cost, inverseDocumentFrequencyLog, this::computeRsv);
+        }
+
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        List<QueryScorer> required = new ArrayList<>();
+        List<QueryScorer> optional = new ArrayList<>();
+        List<QueryScorer> prohibited = new ArrayList<>();
+        for (BooleanQuery.BooleanClause clause : booleanQuery.clauses()) {
+            QueryScorer scorer = createScorer(clause.query(), tables, documentFrequencies, cursors);
+            switch (clause.occur()) {
+                case MUST -> required.add(scorer);
+                case SHOULD -> optional.add(scorer);
+                case MUST_NOT -> prohibited.add(scorer);
+            }
+        }
+
+        QueryScorer matches;
+        if (!required.isEmpty()) {
+            matches = required.size() == 1 ? required.get(0) : new QueryScorer.ConjunctionScorer(required);
+        } else if (!optional.isEmpty()) {
+            matches = optional.size() == 1 ? optional.get(0) : new QueryScorer.DisjunctionScorer(optional);
+        } else {
+            return new QueryScorer.EmptyScorer();
+        }
+        if (!prohibited.isEmpty()) {
+            QueryScorer excluded = prohibited.size() == 1 ? prohibited.get(0) : new QueryScorer.DisjunctionScorer(prohibited);
+            matches = new QueryScorer.ExclusionScorer(matches, excluded);
+        }
+        List<QueryScorer> scored = new ArrayList<>(required);
+        scored.addAll(optional);
+        return new QueryScorer.SumScorer(matches, scored);
+    }
+
+    /**
+     * Reports the measurements of a query to the listener.
+     *
+     * @param listener         - The listener.
+     * @param type             - The type of the query.
+     * @param terms            - The number of query terms.
+     * @param cursors          - The cursors the query read the postings with.
+     * @param candidatesScored - The number of scored documents.
+     * @param results          - The number of results.
+     * @param sortStart        - When the query started ranking the results, in nanoseconds.
+     * @param start            - When the query started, in nanoseconds.
+     */
+    private static void reportQuery(MetricsListener listener, QueryMetrics.Type type, int terms, PostingList.Cursor[] cursors,
+                                    long candidatesScored, int results, long sortStart, long start) {
+        long end = System.nanoTime();
+        long postingsScanned = 0;
+        for (PostingList.Cursor cursor : cursors) {
+            postingsScanned += cursor.getScannedPostings();
+        }
+        listener.onQuery(new QueryMetrics(type, terms, postingsScanned, candidatesScored, results, end - sortStart, end - start));
+    }
+
+    /**
+     * A scored document waiting in the top k heap, the document itself is only loaded for the final results.
+     */
+    private record ScoredDocument(double score, int documentId, int ordinal) {
+    }
+
+    /**
+     * Counts the non-essential lists, the longest prefix of the ordered lists such that a document occurring only in
+     * them can't beat the threshold.
+     */
+    private static int countNonEssential(Integer[] order, double[] lowerBounds, double[] upperBounds, double threshold) {
+        double bound = 0;
+        for (int i : order) {
+            bound += lowerBounds[i];
+        }
+        int nonEssential = 0;
+        while (nonEssential < order.length) {
+            int i = order[nonEssential];
+            bound += upperBounds[i] - lowerBounds[i];
+            if (!canBeSkipped(bound, threshold)) {
+                break;
+            }
+            nonEssential += 1;
+        }
+        return nonEssential;
+    }
+
+    /**
+     * Moves the cursors in [from, to) which are positioned on the smallest document to their next posting and returns
+     * the new smallest document.
+     */
+    private static int nextCandidate(PostingList.Cursor[] cursors, int from, int to) {
+        int current = PostingList.NO_MORE_DOCUMENTS;
+        for (int i = from; i < to; i++) {
+            current = Math.min(current, cursors[i].document());
+        }
+        int candidate = PostingList.NO_MORE_DOCUMENTS;
+        for (int i = from; i < to; i++) {
+            if (cursors[i].document() == current) {
+                cursors[i].next();
+            }
+            candidate = Math.min(candidate, cursors[i].document());
+        }
+        return candidate;
+    }
+
+    /**
+     * Looks every normalized term up in the dictionary once, unknown terms get the id -1.
+     */
+    private int[] resolveTermIds(String... terms) {
+        int[] termIds = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termIds[i] = reader.getTermId(terms[i]);
+        }
+        return termIds;
+    }
+
+    /**
+     * Resolves the postings of the given terms, unknown terms get an empty posting list.
+     */
+    private Postings[] resolvePostings(int[] termIds) {
+        Postings[] termPostings = new Postings[termIds.length];
+        for (int i = 0; i < termIds.length; i++) {
+            termPostings[i] = termIds[i] >= 0 ? reader.getPostings(termIds[i]) : new PostingList();
+        }
+        return termPostings;
+    }
+
+    /**
+     * Sums the RSV of each term for a document.
+     */
+    private double computeDocumentRsv(double lengthNormalization, int[] termFrequencies, double[] inverseDocumentFrequencyLogs) {
+        double rsvSum = 0;
+        for (int i = 0; i < termFrequencies.length; i++) {
+            rsvSum += computeRsv(inverseDocumentFrequencyLogs[i], termFrequencies[i], lengthNormalization);
+        }
+        return rsvSum;
+    }
+
+    /**
+     * Checks if a document bounded by the given upper bound can't enter the top k results anymore.
+     * <p>
+     * The upper bound is relaxed a little, so floating point rounding never drops a document that ties the threshold.
+     */
+    private static boolean canBeSkipped(double upperBound, double threshold) {
+        return upperBound * (1 + 1e-9) < threshold;
+    }
+
+    /**
+     * Computes the RSV for the given term and document.
+     * The RSV (Retrieval Status Value) is computed for every document using the BM25+ formula from the paper.
+     *
+     * @param inverseDocumentFrequencyLog - The log10 of the term's IDF.
+     * @param termFrequency               - How many times the term occurs in the document.
+     * @param lengthNormalization         - The length normalization of the document, see {@link ScoringTables}.
+     */
+    double computeRsv(double inverseDocumentFrequencyLog, int termFrequency, double lengthNormalization) {
+        double termOccurringInDocumentFrequency = termFrequency;
+
+        return inverseDocumentFrequencyLog *
+                (((tuningParameterK1 + 1) * termOccurringInDocumentFrequency) /
+                        (lengthNormalization + termOccurringInDocumentFrequency)
+                        + tuningParameterDelta);
+    }
+
+    private CollectionStatistics getLocalStatistics() {
+        return new CollectionStatistics(reader.getVersion(), reader.getIndexSize(), reader.getMeanDocumentLength(), reader.getMaxDocumentLength());
+    }
+
+    /**
+     * Returns the scoring tables of the given statistics, building them if the statistics changed.
+     */
+    private ScoringTables getScoringTables(CollectionStatistics statistics) {
+        ScoringTables tables = scoringTables;
+        if (tables == null || !tables.statistics.equals(statistics)) {
+            tables = new ScoringTables(statistics);
+            scoringTables = tables;
+        }
+        return tables;
+    }
+
+    /**
+     * ScoringTables hold the parts of the formula which only change when the index changes: the log10 of the IDF of
+     * the queried terms and the length normalization k1 * ((1 - b) + b * (documentLength / meanDocumentLength)).
+     * <p>
+     * Both depend on collection statistics which change with every indexed document, so the tables are built for the
+     * statistics of a collection version and are replaced once the collection changes. The length normalization is tabled by document length
+     * rather than by document, which makes building the table O(longest document) instead of O(documents). The IDF of
+     * a term is computed the first time the term is queried in that version.
+     */
+    private class ScoringTables {
+        private final CollectionStatistics statistics;
+        private final int documentCount;
+        private final double meanDocumentLength;
+        private final double[] lengthNormalizations;
+        private final ConcurrentHashMap<Integer, Double> inverseDocumentFrequencyLogs = new ConcurrentHashMap<>();
+
+        private ScoringTables(CollectionStatistics statistics) {
+            this.statistics = statistics;
+            this.documentCount = statistics.documentCount();
+            this.meanDocumentLength = statistics.meanDocumentLength();
+            this.lengthNormalizations = new double[Math.min(statistics.maxDocumentLength(), MAX_TABLED_DOCUMENT_LENGTH) + 1];
+            for (int documentLength = 0; documentLength < lengthNormalizations.length; documentLength++) {
+                lengthNormalizations[documentLength] = computeLengthNormalization(documentLength);
+            }
+        }
+
+        /**
+         * Returns the length normalization of a document.
+         *
+         * @param documentLength - The number of tokens of the document.
+         */
+        private double getLengthNormalization(int documentLength) {
+            if (documentLength < lengthNormalizations.length) {
+                return lengthNormalizations[documentLength];
+            }
+            return computeLengthNormalization(documentLength);
+        }
+
+        /**
+         * Returns the log10 of the IDF of every term, unknown terms have an infinite IDF.
+         */
+        private double[] getInverseDocumentFrequencyLogs(String[] terms, int[] termIds, DocumentFrequencies documentFrequencies) {
+            double[] logs = new double[termIds.length];
+            for (int i = 0; i < termIds.length; i++) {
+                int documentFrequency = documentFrequencies.get(terms[i], termIds[i]);
+                logs[i] = getInverseDocumentFrequencyLog(termIds[i], documentFrequency);
+            }
+            return logs;
+        }
+
+        /**
+         * Returns the log10 of the IDF of a term.
+         *
+         * @param termId            - The term id, -1 for a term the index doesn't hold.
+         * @param documentFrequency - The number of documents containing the term.
+         */
+        private double getInverseDocumentFrequencyLog(int termId, int documentFrequency) {
+            if (termId < 0) {
+                return Math.log10(computeInverseDocumentFrequency(documentFrequency));
+            }
+            return inverseDocumentFrequencyLogs.computeIfAbsent(termId, k -> Math.log10(computeInverseDocumentFrequency(documentFrequency)));
+        }
+
+        /**
+         * Computes the inverse document frequency for a given term.
+         * <p>
+         * The IDF is defined as the total number of documents (N) divided by the documents that contain the term (dft).
+         * In the BM25+ version the IDF is the (N+1)/(dft)
+         *
+         * @param numberOfDocumentsContainingTheTerm - The document frequency of the term (dft).
+         */
+        private double computeInverseDocumentFrequency(int numberOfDocumentsContainingTheTerm) {
+            return (documentCount + 1) / (double) numberOfDocumentsContainingTheTerm;
+        }
+
+        private double computeLengthNormalization(int documentLength) {
+            double length = documentLength;
+            return tuningParameterK1 * ((1 - tuningParameterB) + tuningParameterB * (length / meanDocumentLength));
+        }
+    }
+}
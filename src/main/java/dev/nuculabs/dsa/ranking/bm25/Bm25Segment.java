@@ -0,0 +1,593 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import utils.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bm25Segment is an immutable, memory-mapped index.
+ * <p>
+ * A segment is written by {@link Bm25Plus#writeSegment(Path)} as a generation, a subdirectory of the segment directory
+ * with four files:
+ * <ul>
+ *     <li>terms - the term dictionary, sorted by the UTF-8 bytes of the terms, with fixed size entries that point into
+ *     the postings file.</li>
+ *     <li>postings - the encoded posting lists followed by their skip entries and positions, see {@link PostingList}.</li>
+ *     <li>lengths - the total number of tokens, the length of the longest document and the length of every document.</li>
+ *     <li>documents - the stored documents, an offset table followed by the document ids and UTF-8 texts.</li>
+ * </ul>
+ * The files are opened with {@link FileChannel#map}, queries read straight from the page cache and only the results
+ * are materialized on the heap. A mapped buffer can't address more than 2 GiB, so every file is mapped in pages of at
+ * most 1 GiB and addressed by long offsets, see {@link MappedFile}.
+ * <p>
+ * The CURRENT file of the segment directory names the generation to open. A write fills a fresh generation, syncs it
+ * and only then replaces CURRENT with an atomic rename, so a crash at any point leaves CURRENT naming one complete
+ * generation, the old one or the new one. The next write deletes the older generations and the leftovers of
+ * interrupted writes. Every file also carries the random id of its write, {@link #open(Path)} rejects a generation whose
+ * files come from different writes.
+ * <p>
+ * A segment holds its files mapped until it is closed, and it can be queried by many threads at once. Every query
+ * holds a reference to the files while it runs, {@link #close()} drops the segment's own reference and the files are
+ * unmapped once the last running query finishes. A query started after the close throws.
+ */
+public class Bm25Segment implements Closeable {
+    private static final int MAGIC = 0x424D3235;
+    private static final int VERSION = 5;
+    private static final String TERMS_FILE = "terms";
+    private static final String POSTINGS_FILE = "postings";
+    private static final String LENGTHS_FILE = "lengths";
+    private static final String DOCUMENTS_FILE = "documents";
+    private static final String CURRENT_FILE = "CURRENT";
+    private static final String GENERATION_PREFIX = "segment-";
+
+    private static final String[] FILES = {TERMS_FILE, POSTINGS_FILE, LENGTHS_FILE, DOCUMENTS_FILE};
+
+    /**
+     * The header of every file holds the magic number, the version, the id of the segment write and the number of
+     * entries.
+     */
+    private static final int SEGMENT_ID_OFFSET = 2 * Integer.BYTES;
+    private static final int COUNT_OFFSET = SEGMENT_ID_OFFSET + Long.BYTES;
+    private static final int HEADER_BYTES = COUNT_OFFSET + Integer.BYTES;
+
+    /**
+     * A term entry holds the name offset and length, the document frequency, the maximum term frequency, the minimum
+     * document length, the postings offset, the encoded postings length and the encoded positions length, which is -1
+     * if the postings have no positions.
+     */
+    private static final int TERM_ENTRY_BYTES = Long.BYTES + 4 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int NAME_LENGTH_OFFSET = Long.BYTES;
+    private static final int DOCUMENT_FREQUENCY_OFFSET = NAME_LENGTH_OFFSET + Integer.BYTES;
+    private static final int MAX_TERM_FREQUENCY_OFFSET = DOCUMENT_FREQUENCY_OFFSET + Integer.BYTES;
+    private static final int MIN_DOCUMENT_LENGTH_OFFSET = MAX_TERM_FREQUENCY_OFFSET + Integer.BYTES;
+    private static final int POSTINGS_OFFSET_OFFSET = MIN_DOCUMENT_LENGTH_OFFSET + Integer.BYTES;
+    private static final int ENCODED_LENGTH_OFFSET = POSTINGS_OFFSET_OFFSET + Long.BYTES;
+    private static final int ENCODED_POSITIONS_LENGTH_OFFSET = ENCODED_LENGTH_OFFSET + Integer.BYTES;
+
+    /**
+     * The document lengths follow the header, the total number of tokens and the maximum document length.
+     */
+    private static final int DOCUMENT_LENGTHS_OFFSET = HEADER_BYTES + Long.BYTES + Integer.BYTES;
+
+    private final MappedFile terms;
+    private final MappedFile postings;
+    private final MappedFile lengths;
+    private final MappedFile documents;
+    private final int termCount;
+    private final int documentCount;
+    private final double meanDocumentLength;
+    private final int maxDocumentLength;
+    private final Bm25PlusSearcher searcher = new Bm25PlusSearcher(new Reader());
+    private volatile boolean closed = false;
+
+    /**
+     * The number of running queries plus one while the segment is open, the files are unmapped when it drops to 0.
+     */
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private Bm25Segment(Path generation, int maximumPageBytes) throws IOException {
+        terms = new MappedFile(generation.resolve(TERMS_FILE), maximumPageBytes);
+        postings = new MappedFile(generation.resolve(POSTINGS_FILE), maximumPageBytes);
+        lengths = new MappedFile(generation.resolve(LENGTHS_FILE), maximumPageBytes);
+        documents = new MappedFile(generation.resolve(DOCUMENTS_FILE), maximumPageBytes);
+
+        termCount = readHeader(terms);
+        readHeader(postings);
+        documentCount = readHeader(lengths);
+        if (readHeader(documents) != documentCount) {
+            throw new IOException("corrupted segment, the lengths and documents files disagree");
+        }
+        long segmentId = terms.getLong(SEGMENT_ID_OFFSET);
+        for (MappedFile file : new MappedFile[]{postings, lengths, documents}) {
+            if (file.getLong(SEGMENT_ID_OFFSET) != segmentId) {
+                throw new IOException("corrupted segment, the files were written by different writes");
+            }
+        }
+        long totalTokens = lengths.getLong(HEADER_BYTES);
+        meanDocumentLength = (double) totalTokens / documentCount;
+        maxDocumentLength = lengths.getInt(HEADER_BYTES + Long.BYTES);
+    }
+
+    /**
+     * Opens the current generation of a segment.
+     *
+     * @param directory - The segment directory.
+     * @return The segment.
+     */
+    public static Bm25Segment open(Path directory) throws IOException {
+        return open(directory, MappedFile.MAXIMUM_PAGE_BYTES);
+    }
+
+    /**
+     * Opens the current generation of a segment with its files mapped in pages of at most the given size.
+     */
+    static Bm25Segment open(Path directory, int maximumPageBytes) throws IOException {
+        String name = Files.readString(directory.resolve(CURRENT_FILE), StandardCharsets.UTF_8);
+        Path generation = directory.resolve(name);
+        if (!name.startsWith(GENERATION_PREFIX) || !directory.equals(generation.getParent())) {
+            throw new IOException("corrupted segment, CURRENT doesn't name a generation");
+        }
+        return new Bm25Segment(generation, maximumPageBytes);
+    }
+
+    /**
+     * Returns the index size.
+     */
+    public int getIndexSize() {
+        return documentCount;
+    }
+
+    /**
+     * Executes a term query against the segment and ranks the results using bm25+.
+     *
+     * @param term - The term
+     */
+    public List<Pair<Double, Document>> termQuery(String term) {
+        acquire();
+        try {
+            return searcher.termQuery(term);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes a terms query against the segment and ranks the results using bm25+.
+     *
+     * @param terms - The terms
+     */
+    public List<Pair<Double, Document>> termsQuery(String... terms) {
+        acquire();
+        try {
+            return searcher.termsQuery(terms);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes a terms query against the segment and returns only the k best ranked results using bm25+.
+     *
+     * @param k     - The number of results to return.
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> topK(int k, String... terms) {
+        acquire();
+        try {
+            return searcher.topK(k, terms);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes a structured query against the segment and returns only the k best ranked results using bm25+.
+     *
+     * @param query - The query.
+     * @param k     - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> search(Query query, int k) {
+        acquire();
+        try {
+            return searcher.search(query, k);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Closes the segment, its files are unmapped once the queries which are running finish.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        release();
+    }
+
+    /**
+     * Takes a reference to the files for a query.
+     */
+    private void acquire() {
+        while (true) {
+            int count = references.get();
+            if (closed || count == 0) {
+                throw new IllegalStateException("the segment is closed");
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops a reference to the files and unmaps them if it was the last one.
+     */
+    private void release() {
+        if (references.decrementAndGet() == 0) {
+            for (MappedFile file : new MappedFile[]{terms, postings, lengths, documents}) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a segment as a new generation and makes it the current one atomically.
+     *
+     * @param reader             - The reader of the index.
+     * @param dictionary         - The term dictionary of the index.
+     * @param termFrequencyIndex - The posting lists of the index, by term id.
+     * @param totalTokens        - The total number of tokens of the index.
+     * @param directory          - The segment directory, it is created if it does not exist.
+     */
+    static void write(IndexReader reader, TermDictionary dictionary, List<PostingList> termFrequencyIndex, long totalTokens, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long segmentId = ThreadLocalRandom.current().nextLong();
+        String name = String.format("%s%016x", GENERATION_PREFIX, segmentId);
+        Path generation = Files.createDirectory(directory.resolve(name));
+        Path temporaryCurrent = null;
+        boolean published = false;
+        try {
+            writeFiles(reader, dictionary, termFrequencyIndex, totalTokens, generation, segmentId);
+            // The generation is on disk before CURRENT names it.
+            for (String file : FILES) {
+                force(generation.resolve(file));
+            }
+            forceDirectory(generation);
+            temporaryCurrent = Files.createTempFile(directory, "." + CURRENT_FILE + "-", ".tmp");
+            Files.writeString(temporaryCurrent, name, StandardCharsets.UTF_8);
+            force(temporaryCurrent);
+            Files.move(temporaryCurrent, directory.resolve(CURRENT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            published = true;
+            forceDirectory(directory);
+        } finally {
+            if (temporaryCurrent != null) {
+                Files.deleteIfExists(temporaryCurrent);
+            }
+            if (!published) {
+                deleteGeneration(generation);
+            }
+        }
+        deleteGenerations(directory, name);
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Syncs the entries of a directory, on the platforms which can open a directory.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The entries are as durable as the file system makes them.
+        }
+    }
+
+    /**
+     * Deletes the generations other than the given one, the older ones and the leftovers of interrupted writes. A
+     * generation which can't be deleted, because a platform doesn't delete files which are still mapped, is left for
+     * the next write.
+     */
+    private static void deleteGenerations(Path directory, String current) {
+        try (DirectoryStream<Path> generations = Files.newDirectoryStream(directory, GENERATION_PREFIX + "*")) {
+            for (Path generation : generations) {
+                if (!generation.getFileName().toString().equals(current)) {
+                    deleteGeneration(generation);
+                }
+            }
+        } catch (IOException e) {
+            // The next write retries.
+        }
+    }
+
+    private static void deleteGeneration(Path generation) {
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(generation)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(generation);
+        } catch (IOException e) {
+            // The next write retries.
+        }
+    }
+
+    private static void writeFiles(IndexReader reader, TermDictionary dictionary, List<PostingList> termFrequencyIndex, long totalTokens,
+                                   Path generation, long segmentId) throws IOException {
+        // The dictionary is sorted by the UTF-8 bytes of the terms, so it can be binary searched.
+        List<Pair<byte[], PostingList>> sortedTerms = new ArrayList<>(dictionary.size());
+        for (int termId = 0; termId < dictionary.size(); termId++) {
+            // The terms whose documents were all deleted are left out.
+            if (termFrequencyIndex.get(termId).size() == 0) {
+                continue;
+            }
+            sortedTerms.add(new Pair<>(dictionary.getTerm(termId).getBytes(StandardCharsets.UTF_8), termFrequencyIndex.get(termId)));
+        }
+        sortedTerms.sort((a, b) -> Arrays.compareUnsigned(a.first(), b.first()));
+
+        try (var termsOutput = createOutput(generation.resolve(TERMS_FILE));
+             var postingsOutput = createOutput(generation.resolve(POSTINGS_FILE))) {
+            writeHeader(termsOutput, segmentId, sortedTerms.size());
+            writeHeader(postingsOutput, segmentId, sortedTerms.size());
+            long nameOffset = 0;
+            long postingsOffset = HEADER_BYTES;
+            for (Pair<byte[], PostingList> entry : sortedTerms) {
+                PostingList postingList = entry.second();
+                termsOutput.writeLong(nameOffset);
+                termsOutput.writeInt(entry.first().length);
+                termsOutput.writeInt(postingList.size());
+                termsOutput.writeInt(postingList.getMaxTermFrequency());
+                termsOutput.writeInt(postingList.getMinDocumentLength());
+                termsOutput.writeLong(postingsOffset);
+                termsOutput.writeInt(postingList.getEncodedLength());
+                termsOutput.writeInt(postingList.getEncodedPositionsLength());
+
+                postingList.writeTo(postingsOutput);
+                nameOffset += entry.first().length;
+                postingsOffset += postingList.getSizeInBytes();
+            }
+            for (Pair<byte[], PostingList> entry : sortedTerms) {
+                termsOutput.write(entry.first());
+            }
+        }
+
+        int documentCount = reader.getIndexSize();
+        try (var lengthsOutput = createOutput(generation.resolve(LENGTHS_FILE))) {
+            writeHeader(lengthsOutput, segmentId, documentCount);
+            lengthsOutput.writeLong(totalTokens);
+            lengthsOutput.writeInt(reader.getMaxDocumentLength());
+            for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+                lengthsOutput.writeInt(reader.getDocumentLength(ordinal));
+            }
+        }
+
+        try (var documentsOutput = createOutput(generation.resolve(DOCUMENTS_FILE))) {
+            writeHeader(documentsOutput, segmentId, documentCount);
+            List<byte[]> texts = new ArrayList<>(documentCount);
+            long offset = 0;
+            for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+                byte[] text = reader.getDocument(ordinal).text().getBytes(StandardCharsets.UTF_8);
+                texts.add(text);
+                documentsOutput.writeLong(offset);
+                offset += 2 * Integer.BYTES + text.length;
+            }
+            for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+                documentsOutput.writeInt(reader.getDocumentId(ordinal));
+                documentsOutput.writeInt(texts.get(ordinal).length);
+                documentsOutput.write(texts.get(ordinal));
+            }
+        }
+    }
+
+    private static DataOutputStream createOutput(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private static void writeHeader(DataOutputStream output, long segmentId, int count) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(segmentId);
+        output.writeInt(count);
+    }
+
+    private static int readHeader(MappedFile file) throws IOException {
+        if (file.size() < HEADER_BYTES || file.getInt(0) != MAGIC) {
+            throw new IOException("not a bm25 segment file");
+        }
+        if (file.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("unsupported segment version " + file.getInt(Integer.BYTES));
+        }
+        return file.getInt(COUNT_OFFSET);
+    }
+
+    /**
+     * Binary searches the term dictionary, a term's id in the segment is the position of its entry.
+     *
+     * @return The term id or -1 if the term is not in the dictionary.
+     */
+    private int findTerm(byte[] term) {
+        long namesOffset = termEntry(termCount);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long entry = termEntry(middle);
+            int comparison = compareName(namesOffset + terms.getLong(entry), terms.getInt(entry + NAME_LENGTH_OFFSET), term);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of a term entry, the entries are followed by the names.
+     */
+    private static long termEntry(int termId) {
+        return HEADER_BYTES + (long) termId * TERM_ENTRY_BYTES;
+    }
+
+    /**
+     * Compares the name stored at the given offset with the term, byte by byte as unsigned values.
+     */
+    private int compareName(long offset, int length, byte[] term) {
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Byte.compareUnsigned(terms.get(offset + i), term[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    /**
+     * SegmentPostings are the postings of a term, read from the mapped postings file.
+     */
+    private class SegmentPostings implements Postings {
+        private final int size;
+        private final int maxTermFrequency;
+        private final int minDocumentLength;
+        private final long offset;
+        private final int encodedLength;
+        private final int encodedPositionsLength;
+
+        private SegmentPostings(long entry) {
+            size = terms.getInt(entry + DOCUMENT_FREQUENCY_OFFSET);
+            maxTermFrequency = terms.getInt(entry + MAX_TERM_FREQUENCY_OFFSET);
+            minDocumentLength = terms.getInt(entry + MIN_DOCUMENT_LENGTH_OFFSET);
+            offset = terms.getLong(entry + POSTINGS_OFFSET_OFFSET);
+            encodedLength = terms.getInt(entry + ENCODED_LENGTH_OFFSET);
+            encodedPositionsLength = terms.getInt(entry + ENCODED_POSITIONS_LENGTH_OFFSET);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int getMaxTermFrequency() {
+            return maxTermFrequency;
+        }
+
+        @Override
+        public int getMinDocumentLength() {
+            return minDocumentLength;
+        }
+
+        @Override
+        public PostingList.Cursor cursor() {
+            int blocks = size / PostingList.BLOCK_SIZE;
+            long skipDocumentsOffset = offset + encodedLength;
+            long skipOffsetsOffset = skipDocumentsOffset + blocks * Integer.BYTES;
+            long skipPositionOffsetsOffset = skipOffsetsOffset + blocks * Integer.BYTES;
+            boolean positional = encodedPositionsLength >= 0;
+            return new PostingList.Cursor(
+                    postings.slice(offset, encodedLength),
+                    positional ? postings.slice(skipPositionOffsetsOffset + blocks * Integer.BYTES, encodedPositionsLength) : null,
+                    postings.slice(skipDocumentsOffset, blocks * Integer.BYTES).asIntBuffer(),
+                    postings.slice(skipOffsetsOffset, blocks * Integer.BYTES).asIntBuffer(),
+                    positional ? postings.slice(skipPositionOffsetsOffset, blocks * Integer.BYTES).asIntBuffer() : null,
+                    size
+            );
+        }
+    }
+
+    /**
+     * Reader gives the searcher access to the mapped files.
+     */
+    private class Reader implements IndexReader {
+        @Override
+        public int getIndexSize() {
+            return documentCount;
+        }
+
+        @Override
+        public double getMeanDocumentLength() {
+            return meanDocumentLength;
+        }
+
+        @Override
+        public int getMaxDocumentLength() {
+            return maxDocumentLength;
+        }
+
+        @Override
+        public long getVersion() {
+            // A segment is immutable.
+            return 0;
+        }
+
+        @Override
+        public int getTermId(String term) {
+            return findTerm(term.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Postings getPostings(int termId) {
+            return new SegmentPostings(termEntry(termId));
+        }
+
+        @Override
+        public int getDocumentFrequency(int termId) {
+            return terms.getInt(termEntry(termId) + DOCUMENT_FREQUENCY_OFFSET);
+        }
+
+        @Override
+        public boolean isDeleted(int ordinal) {
+            // The deleted documents are compacted away before a segment is written.
+            return false;
+        }
+
+        @Override
+        public int getDocumentLength(int ordinal) {
+            return lengths.getInt(DOCUMENT_LENGTHS_OFFSET + (long) ordinal * Integer.BYTES);
+        }
+
+        @Override
+        public int getDocumentId(int ordinal) {
+            return documents.getInt(documentOffset(ordinal));
+        }
+
+        @Override
+        public Document getDocument(int ordinal) {
+            long offset = documentOffset(ordinal);
+            byte[] text = new byte[documents.getInt(offset + Integer.BYTES)];
+            documents.get(offset + 2 * Integer.BYTES, text);
+            return new Document(documents.getInt(offset), new String(text, StandardCharsets.UTF_8));
+        }
+
+        private long documentOffset(int ordinal) {
+            long dataOffset = HEADER_BYTES + (long) documentCount * Long.BYTES;
+            return dataOffset + documents.getLong(HEADER_BYTES + (long) ordinal * Long.BYTES);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * BooleanQuery combines other queries with MUST, SHOULD and MUST_NOT clauses.
+ * <p>
+ * A document matches if it matches all the MUST clauses and none of the MUST_NOT clauses. When there are no MUST
+ * clauses it must match at least one SHOULD clause instead. A query with only MUST_NOT clauses matches nothing.
+ * <p>
+ * The score of a document is the sum of the scores of the MUST and SHOULD clauses, the MUST_NOT clauses only filter.
+ * Like in a terms query, a clause which doesn't match the document still adds the delta part of bm25+, so a boolean
+ * query made of SHOULD term clauses ranks the documents exactly like a terms query of the same terms.
+ *
+ * @param clauses - The clauses.
+ */
+public record BooleanQuery(List<BooleanClause> clauses) implements Query {
+    public BooleanQuery {
+        clauses = List.copyOf(clauses);
+    }
+
+    /**
+     * Returns a builder of boolean queries.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Occur tells how a clause must match the documents.
+     */
+    public enum Occur {
+        MUST,
+        SHOULD,
+        MUST_NOT
+    }
+
+    /**
+     * BooleanClause is a query and how it must match.
+     *
+     * @param occur - How the query must match.
+     * @param query - The query.
+     */
+    public record BooleanClause(Occur occur, Query query) {
+        public BooleanClause {
+            Objects.requireNonNull(occur, "occur must not be null");
+            Objects.requireNonNull(query, "query must not be null");
+        }
+    }
+
+    /**
+     * Builder collects the clauses of a boolean query.
+     */
+    public static class Builder {
+        private final List<BooleanClause> clauses = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a clause which the documents must match.
+         *
+         * @param query - The query.
+         */
+        public Builder must(Query query) {
+            clauses.add(new BooleanClause(Occur.MUST, query));
+            return this;
+        }
+
+        /**
+         * Adds a clause which the documents should match.
+         *
+         * @param query - The query.
+         */
+        public Builder should(Query query) {
+            clauses.add(new BooleanClause(Occur.SHOULD, query));
+            return this;
+        }
+
+        /**
+         * Adds a clause which the documents must not match.
+         *
+         * @param query - The query.
+         */
+        public Builder mustNot(Query query) {
+            clauses.add(new BooleanClause(Occur.MUST_NOT, query));
+            return this;
+        }
+
+        /**
+         * Builds the query.
+         */
+        public BooleanQuery build() {
+            return new BooleanQuery(clauses);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+/**
+ * CollectionStatistics are the statistics of the document collection which the BM25+ scores depend on.
+ * <p>
+ * Usually they are the statistics of the searched index. A shard is searched with the statistics of the whole
+ * collection instead, so its scores are the same as those of an unsharded index.
+ *
+ * @param version            - The version of the collection, it changes every time the collection changes.
+ * @param documentCount      - The number of documents, without the deleted ones.
+ * @param meanDocumentLength - The mean length of the documents.
+ * @param maxDocumentLength  - The length of the longest document.
+ */
+record CollectionStatistics(long version, int documentCount, double meanDocumentLength, int maxDocumentLength) {
+}
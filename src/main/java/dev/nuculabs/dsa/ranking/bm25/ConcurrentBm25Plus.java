@@ -0,0 +1,528 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import utils.Pair;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ConcurrentBm25Plus is a BM25+ index which can be queried by many threads while documents are being indexed.
+ * <p>
+ * The queries run against an immutable, versioned {@link Snapshot} of the index and never take a lock. A single writer
+ * indexes the documents into private structures and publishes a new snapshot when it refreshes, which happens
+ * explicitly with {@link #refresh()} or every refreshInterval indexed documents, so the documents become searchable
+ * in near real time. A refresh costs a copy of the changed pages of posting views, the interval batches the changes
+ * so that the cost is paid once per batch of documents and not once per document.
+ * <p>
+ * Publishing a snapshot doesn't copy the index. The posting lists only ever append, so a snapshot keeps frozen views
+ * of them which share their arrays, see {@link PostingList#freeze()}. The views are kept in pages of terms and a
+ * refresh copies only the pages of the terms that changed since the previous snapshot.
+ * <p>
+ * Deleted documents get a tombstone and are left out of the statistics right away, {@link #compact()} reclaims them
+ * later. The compaction builds new structures instead of modifying the published ones, so it can run in the
+ * background while the queries continue on the current snapshot.
+ * <p>
+ * The write methods are synchronized, concurrent writers are serialized.
+ */
+public class ConcurrentBm25Plus {
+    /**
+     * The number of terms in a page of posting views.
+     */
+    private static final int PAGE_SIZE = 256;
+
+    /**
+     * The default number of changes after which a new snapshot is published.
+     */
+    public static final int DEFAULT_REFRESH_INTERVAL = 1024;
+
+    private final int refreshInterval;
+
+    /**
+     * The storage holds the documents, a document's position in the storage is its ordinal. Only the slots after the
+     * last indexed document are ever written, and the array is replaced by a copy when it grows.
+     */
+    private TokenizedDocument[] storage = new TokenizedDocument[16];
+    private int documentCount = 0;
+
+    /**
+     * The ordinals hold a mapping of document id -> document ordinal, for the documents which were not deleted.
+     */
+    private final HashMap<Integer, Integer> ordinals = new HashMap<>();
+
+    /**
+     * The tombstones of the deleted documents, by ordinal. A snapshot gets a copy when it differs from the previous one.
+     */
+    private BitSet deletedDocuments = new BitSet();
+    private boolean deletedSinceRefresh = false;
+
+    /**
+     * The number of deleted documents in the posting list of every term, by term id.
+     */
+    private int[] deletedPostings = new int[0];
+
+    /**
+     * The dictionary and the term frequency index are only used by the writer.
+     */
+    private final TermDictionary dictionary = new TermDictionary();
+    private final ArrayList<PostingList> termFrequencyIndex = new ArrayList<>();
+
+    /**
+     * The ids of the terms whose postings or document frequency changed since the last refresh.
+     */
+    private final BitSet changedTerms = new BitSet();
+
+    /**
+     * The published terms, shared by all snapshots. A snapshot ignores the terms published after it.
+     */
+    private final ConcurrentHashMap<String, Integer> publishedTermIds = new ConcurrentHashMap<>();
+
+    private long totalTokens = 0;
+    private int maxDocumentLength = 0;
+    private int pendingChanges = 0;
+
+    private volatile Snapshot snapshot = new Snapshot(0, new TokenizedDocument[0], new BitSet(), 0, 0, 0, 0, publishedTermIds, new TermPostings[0][]);
+
+    /**
+     * Constructs an index which refreshes every {@link #DEFAULT_REFRESH_INTERVAL} changes, call {@link #refresh()} to
+     * make the latest changes searchable earlier.
+     */
+    public ConcurrentBm25Plus() {
+        this(DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Constructs an index.
+     *
+     * @param refreshInterval - The number of indexed or deleted documents after which a new snapshot is published.
+     */
+    public ConcurrentBm25Plus(int refreshInterval) {
+        if (refreshInterval <= 0) {
+            throw new IllegalArgumentException("refresh interval must be positive");
+        }
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Returns the size of the latest published snapshot.
+     */
+    public int getIndexSize() {
+        return snapshot.getIndexSize();
+    }
+
+    /**
+     * Returns the latest published snapshot.
+     * <p>
+     * Queries executed against the same snapshot see the same documents, no matter what is indexed meanwhile.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Indexes a document, it becomes searchable after the next refresh.
+     */
+    public synchronized void index(Document document) {
+        if (indexDocument(document)) {
+            countChange();
+        }
+    }
+
+    private boolean indexDocument(Document document) {
+        // Document already exists in index
+        if (ordinals.containsKey(document.documentId())) {
+            return false;
+        }
+
+        TokenizedDocument tokenizedDocument = TokenizedDocument.fromDocument(document, dictionary);
+        int ordinal = documentCount;
+        if (ordinal == storage.length) {
+            storage = Arrays.copyOf(storage, ordinal * 2);
+        }
+        storage[ordinal] = tokenizedDocument;
+        documentCount += 1;
+        ordinals.put(document.documentId(), ordinal);
+
+        totalTokens += tokenizedDocument.getLength();
+        maxDocumentLength = Math.max(maxDocumentLength, tokenizedDocument.getLength());
+
+        Bm25Plus.addPostings(termFrequencyIndex, tokenizedDocument, ordinal);
+        for (int termId : tokenizedDocument.getTokenIds()) {
+            changedTerms.set(termId);
+        }
+        return true;
+    }
+
+    /**
+     * Indexes all documents.
+     *
+     * @param documents - The documents.
+     */
+    public synchronized void indexAll(Document... documents) {
+        Arrays.stream(documents).forEach(this::index);
+    }
+
+    /**
+     * Deletes a document, the deletion becomes visible after the next refresh.
+     * <p>
+     * The document is marked with a tombstone and left out of the collection statistics, so the scores are the same
+     * as if it had never been indexed. Its postings are reclaimed by {@link #compact()}.
+     *
+     * @param documentId - The document id.
+     * @return True if the document was deleted, false if it was not in the index.
+     */
+    public synchronized boolean delete(int documentId) {
+        if (deleteDocument(documentId)) {
+            countChange();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean deleteDocument(int documentId) {
+        Integer ordinal = ordinals.remove(documentId);
+        if (ordinal == null) {
+            return false;
+        }
+        TokenizedDocument tokenizedDocument = storage[ordinal];
+        deletedDocuments.set(ordinal);
+        deletedSinceRefresh = true;
+        totalTokens -= tokenizedDocument.getLength();
+
+        if (deletedPostings.length < termFrequencyIndex.size()) {
+            deletedPostings = Arrays.copyOf(deletedPostings, termFrequencyIndex.size());
+        }
+        for (int termId : tokenizedDocument.getDistinctTokenIds()) {
+            deletedPostings[termId] += 1;
+            changedTerms.set(termId);
+        }
+        return true;
+    }
+
+    /**
+     * Updates a document, the document with the same id is replaced or the document is indexed if it is missing.
+     * Both the deletion and the new version become visible with the same refresh.
+     *
+     * @param document - The new version of the document.
+     */
+    public synchronized void update(Document document) {
+        boolean deleted = deleteDocument(document.documentId());
+        if (indexDocument(document) || deleted) {
+            countChange();
+        }
+    }
+
+    /**
+     * Compacts the index in the background, on the common fork join pool.
+     *
+     * @return A future completed when the compacted snapshot is published.
+     */
+    public CompletableFuture<Void> compactAsync() {
+        return compactAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compacts the index in the background.
+     *
+     * @param executor - The executor which runs the compaction.
+     * @return A future completed when the compacted snapshot is published.
+     */
+    public CompletableFuture<Void> compactAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::compact, executor);
+    }
+
+    /**
+     * Compacts the index, reclaiming the storage and the postings of the deleted documents, and publishes a snapshot.
+     * <p>
+     * The live documents get new dense ordinals, in the same order, and the posting lists are rewritten without the
+     * deleted documents into new arrays, the published snapshots are not touched. The queries keep running against the
+     * current snapshot meanwhile, only the writers wait for the compaction to finish.
+     */
+    public synchronized void compact() {
+        if (deletedDocuments.isEmpty()) {
+            return;
+        }
+
+        int[] newOrdinals = new int[documentCount];
+        TokenizedDocument[] liveDocuments = new TokenizedDocument[Math.max(16, ordinals.size())];
+        int liveDocumentCount = 0;
+        maxDocumentLength = 0;
+        for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+            if (deletedDocuments.get(ordinal)) {
+                newOrdinals[ordinal] = -1;
+                continue;
+            }
+            TokenizedDocument tokenizedDocument = storage[ordinal];
+            newOrdinals[ordinal] = liveDocumentCount;
+            ordinals.put(tokenizedDocument.getDocumentId(), liveDocumentCount);
+            liveDocuments[liveDocumentCount++] = tokenizedDocument;
+            maxDocumentLength = Math.max(maxDocumentLength, tokenizedDocument.getLength());
+        }
+
+        for (int termId = 0; termId < termFrequencyIndex.size(); termId++) {
+            PostingList compacted = new PostingList(true);
+            PostingList.Cursor cursor = termFrequencyIndex.get(termId).cursor();
+            while (cursor.next() != PostingList.NO_MORE_DOCUMENTS) {
+                int ordinal = newOrdinals[cursor.document()];
+                if (ordinal >= 0) {
+                    compacted.add(ordinal, cursor.positions(), cursor.termFrequency(), liveDocuments[ordinal].getLength());
+                }
+            }
+            termFrequencyIndex.set(termId, compacted);
+        }
+        changedTerms.set(0, termFrequencyIndex.size());
+
+        storage = liveDocuments;
+        documentCount = liveDocumentCount;
+        deletedDocuments = new BitSet();
+        deletedSinceRefresh = true;
+        deletedPostings = new int[0];
+        publish();
+    }
+
+    /**
+     * Publishes a snapshot with all the indexed and deleted documents.
+     */
+    public synchronized void refresh() {
+        if (pendingChanges == 0) {
+            return;
+        }
+        publish();
+    }
+
+    private void countChange() {
+        pendingChanges += 1;
+        if (pendingChanges >= refreshInterval) {
+            refresh();
+        }
+    }
+
+    private void publish() {
+        Snapshot previous = snapshot;
+
+        int termCount = dictionary.size();
+        for (int termId = previous.termCount; termId < termCount; termId++) {
+            publishedTermIds.put(dictionary.getTerm(termId), termId);
+        }
+
+        // Copy on write the pages of the changed terms, the other pages are shared with the previous snapshot.
+        TermPostings[][] pages = Arrays.copyOf(previous.pages, (termCount + PAGE_SIZE - 1) / PAGE_SIZE);
+        int copiedPage = -1;
+        for (int termId = changedTerms.nextSetBit(0); termId >= 0; termId = changedTerms.nextSetBit(termId + 1)) {
+            int page = termId / PAGE_SIZE;
+            if (page != copiedPage) {
+                pages[page] = pages[page] == null ? new TermPostings[PAGE_SIZE] : pages[page].clone();
+                copiedPage = page;
+            }
+            PostingList postingList = termFrequencyIndex.get(termId);
+            int deleted = termId < deletedPostings.length ? deletedPostings[termId] : 0;
+            pages[page][termId % PAGE_SIZE] = new TermPostings(postingList.freeze(), postingList.size() - deleted);
+        }
+        changedTerms.clear();
+        pendingChanges = 0;
+
+        BitSet snapshotDeletedDocuments = deletedSinceRefresh ? (BitSet) deletedDocuments.clone() : previous.deletedDocuments;
+        deletedSinceRefresh = false;
+
+        int liveDocumentCount = ordinals.size();
+        double meanDocumentLength = liveDocumentCount == 0 ? 0.0 : (double) totalTokens / liveDocumentCount;
+        snapshot = new Snapshot(previous.version + 1, storage, snapshotDeletedDocuments, liveDocumentCount,
+                meanDocumentLength, maxDocumentLength, termCount, publishedTermIds, pages);
+    }
+
+    /**
+     * Executes a term query against the latest snapshot and ranks the results using bm25+.
+     *
+     * @param term - The term
+     */
+    public List<Pair<Double, Document>> termQuery(String term) {
+        return snapshot.termQuery(term);
+    }
+
+    /**
+     * Executes a terms query against the latest snapshot and ranks the results using bm25+.
+     *
+     * @param terms - The terms
+     */
+    public List<Pair<Double, Document>> termsQuery(String... terms) {
+        return snapshot.termsQuery(terms);
+    }
+
+    /**
+     * Executes a terms query against the latest snapshot and returns only the k best ranked results using bm25+.
+     *
+     * @param k     - The number of results to return.
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> topK(int k, String... terms) {
+        return snapshot.topK(k, terms);
+    }
+
+    /**
+     * Executes a structured query against the latest snapshot and returns only the k best ranked results using bm25+.
+     *
+     * @param query - The query.
+     * @param k     - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> search(Query query, int k) {
+        return snapshot.search(query, k);
+    }
+
+    /**
+     * TermPostings are the frozen postings of a term together with the term's document frequency.
+     *
+     * @param postings          - The postings, they may include deleted documents.
+     * @param documentFrequency - The number of documents in which the term occurs, without the deleted ones.
+     */
+    private record TermPostings(Postings postings, int documentFrequency) {
+    }
+
+    /**
+     * Snapshot is an immutable view of the index at the time it was published.
+     */
+    public static class Snapshot {
+        private final long version;
+        private final TokenizedDocument[] storage;
+        private final BitSet deletedDocuments;
+        private final int documentCount;
+        private final double meanDocumentLength;
+        private final int maxDocumentLength;
+        private final int termCount;
+        private final Map<String, Integer> termIds;
+        private final TermPostings[][] pages;
+        private final Bm25PlusSearcher searcher = new Bm25PlusSearcher(new Reader());
+
+        private Snapshot(long version, TokenizedDocument[] storage, BitSet deletedDocuments, int documentCount,
+                         double meanDocumentLength, int maxDocumentLength, int termCount, Map<String, Integer> termIds,
+                         TermPostings[][] pages) {
+            this.version = version;
+            this.storage = storage;
+            this.deletedDocuments = deletedDocuments;
+            this.documentCount = documentCount;
+            this.meanDocumentLength = meanDocumentLength;
+            this.maxDocumentLength = maxDocumentLength;
+            this.termCount = termCount;
+            this.termIds = termIds;
+            this.pages = pages;
+        }
+
+        /**
+         * Returns the version of the snapshot, every published snapshot has a higher version than the previous one.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns the number of documents of the snapshot, without the deleted ones.
+         */
+        public int getIndexSize() {
+            return documentCount;
+        }
+
+        /**
+         * Executes a term query against the snapshot and ranks the results using bm25+.
+         *
+         * @param term - The term
+         */
+        public List<Pair<Double, Document>> termQuery(String term) {
+            return searcher.termQuery(term);
+        }
+
+        /**
+         * Executes a terms query against the snapshot and ranks the results using bm25+.
+         *
+         * @param terms - The terms
+         */
+        public List<Pair<Double, Document>> termsQuery(String... terms) {
+            return searcher.termsQuery(terms);
+        }
+
+        /**
+         * Executes a terms query against the snapshot and returns only the k best ranked results using bm25+.
+         *
+         * @param k     - The number of results to return.
+         * @param terms - The terms
+         * @return The results ranked by score, ties are ranked by document id.
+         */
+        public List<Pair<Double, Document>> topK(int k, String... terms) {
+            return searcher.topK(k, terms);
+        }
+
+        /**
+         * Executes a structured query against the snapshot and returns only the k best ranked results using bm25+.
+         *
+         * @param query - The query.
+         * @param k     - The number of results to return.
+         * @return The results ranked by score, ties are ranked by document id.
+         */
+        public List<Pair<Double, Document>> search(Query query, int k) {
+            return searcher.search(query, k);
+        }
+
+        /**
+         * Reader gives the searcher access to the snapshot.
+         */
+        private class Reader implements IndexReader {
+            @Override
+            public int getIndexSize() {
+                return documentCount;
+            }
+
+            @Override
+            public double getMeanDocumentLength() {
+                return meanDocumentLength;
+            }
+
+            @Override
+            public int getMaxDocumentLength() {
+                return maxDocumentLength;
+            }
+
+            @Override
+            public long getVersion() {
+                return version;
+            }
+
+            @Override
+            public int getTermId(String term) {
+                Integer termId = termIds.get(term);
+                return termId != null && termId < termCount ? termId : -1;
+            }
+
+            @Override
+            public Postings getPostings(int termId) {
+                return pages[termId / PAGE_SIZE][termId % PAGE_SIZE].postings();
+            }
+
+            @Override
+            public int getDocumentFrequency(int termId) {
+                return pages[termId / PAGE_SIZE][termId % PAGE_SIZE].documentFrequency();
+            }
+
+            @Override
+            public boolean isDeleted(int ordinal) {
+                return deletedDocuments.get(ordinal);
+            }
+
+            @Override
+            public int getDocumentLength(int ordinal) {
+                return storage[ordinal].getLength();
+            }
+
+            @Override
+            public int getDocumentId(int ordinal) {
+                return storage[ordinal].getDocumentId();
+            }
+
+            @Override
+            public Document getDocument(int ordinal) {
+                return storage[ordinal].getDocument();
+            }
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * DocumentFile is a file of documents, one document per line, in one of two formats:
+ * <ul>
+ *     <li>JSONL - a JSON object per line with a numeric "id" and a string "text", other fields are ignored.</li>
+ *     <li>TSV - the id, a tab and the text, which runs until the end of the line.</li>
+ * </ul>
+ * The file is opened once, when the document file is created, and read through a fixed size buffer with the positional
+ * reads of a {@link FileChannel}, so reading it never holds more than a line on the heap and the readers share the
+ * channel, from any number of threads. Every document is located by the byte offset of its line, which lets an index
+ * drop the text of the documents and read it back from the file when a document is returned by a query, see
+ * {@link Bm25Plus#ingest(DocumentFile, int, boolean)}. The blank lines are skipped.
+ * <p>
+ * The document file must stay open for as long as it is read, including by an index holding documents without their
+ * text, and be closed afterwards to close the file.
+ */
+public class DocumentFile implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Format format;
+    private final FileChannel channel;
+
+    /**
+     * Format is the format of the lines of a document file.
+     */
+    public enum Format {
+        JSONL,
+        TSV
+    }
+
+    /**
+     * Opens a document file.
+     *
+     * @param path   - The path of the file.
+     * @param format - The format of the file.
+     */
+    public DocumentFile(Path path, Format format) throws IOException {
+        this.path = path;
+        this.format = format;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Opens a JSONL document file.
+     *
+     * @param path - The path of the file.
+     */
+    public static DocumentFile jsonl(Path path) throws IOException {
+        return new DocumentFile(path, Format.JSONL);
+    }
+
+    /**
+     * Opens a TSV document file.
+     *
+     * @param path - The path of the file.
+     */
+    public static DocumentFile tsv(Path path) throws IOException {
+        return new DocumentFile(path, Format.TSV);
+    }
+
+    /**
+     * Returns the path of the file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns a lazy stream of the documents of the file.
+     */
+    public Stream<Document> documents() {
+        LineReader reader = openReader();
+        Iterator<Document> iterator = new Iterator<>() {
+            private Document next = read();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Document next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Document document = next;
+                next = read();
+                return document;
+            }
+
+            private Document read() {
+                try {
+                    return reader.next() ? reader.document() : null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads the document whose line starts at the given offset.
+     *
+     * @param offset - The byte offset of the line.
+     * @return The document.
+     */
+    public Document read(long offset) throws IOException {
+        LineReader reader = new LineReader(offset, 4096);
+        if (!reader.next()) {
+            throw new IOException("no document at offset " + offset + " of " + path);
+        }
+        return reader.document();
+    }
+
+    /**
+     * Returns a reader positioned at the beginning of the file.
+     */
+    LineReader openReader() {
+        return new LineReader(0, BUFFER_SIZE);
+    }
+
+    /**
+     * Closes the file, the documents can't be read anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Parses a line of the file.
+     */
+    private Document parse(String line, long offset) {
+        try {
+            if (format == Format.TSV) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IllegalArgumentException("missing tab");
+                }
+                return new Document(Integer.parseInt(line.substring(0, tab).trim()), line.substring(tab + 1));
+            }
+            return new JsonLineParser(line).parse();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid " + format.name().toLowerCase(Locale.ROOT) + " line at offset " + offset + " of " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * LineReader reads the file a line at a time through a reusable buffer and keeps track of the offset of every
+     * line. It reads the channel of the file at its own position, so a reader needs no closing.
+     */
+    class LineReader {
+        private final ByteBuffer buffer;
+        private long position;
+        private byte[] line = new byte[256];
+        private int lineLength = 0;
+        private long lineOffset;
+        private boolean endOfFile = false;
+
+        private LineReader(long position, int bufferSize) {
+            // A direct buffer saves a copy on every read, it pays off for the readers which scan the whole file.
+            this.buffer = (bufferSize >= BUFFER_SIZE ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize)).limit(0);
+            this.position = position;
+        }
+
+        /**
+         * Moves to the next non-blank line.
+         *
+         * @return False at the end of the file.
+         */
+        boolean next() throws IOException {
+            while (readLine()) {
+                if (!isBlank()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the byte offset of the current line.
+         */
+        long offset() {
+            return lineOffset;
+        }
+
+        /**
+         * Parses the current line.
+         */
+        Document document() {
+            return parse(new String(line, 0, lineLength, StandardCharsets.UTF_8), lineOffset);
+        }
+
+        private boolean readLine() throws IOException {
+            lineLength = 0;
+            lineOffset = position;
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    if (endOfFile) {
+                        return lineLength > 0;
+                    }
+                    buffer.clear();
+                    endOfFile = channel.read(buffer, position) < 0;
+                    buffer.flip();
+                    if (endOfFile) {
+                        return lineLength > 0;
+                    }
+                }
+                byte current = buffer.get();
+                position += 1;
+                if (current == '\n') {
+                    if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                        lineLength -= 1;
+                    }
+                    return true;
+                }
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, lineLength * 2);
+                }
+                line[lineLength++] = current;
+            }
+        }
+
+        private boolean isBlank() {
+            for (int i = 0; i < lineLength; i++) {
+                if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * JsonLineParser parses a flat JSON object holding the id and the text of a document.
+     */
+    private static class JsonLineParser {
+        private final String line;
+        private int index = 0;
+
+        private JsonLineParser(String line) {
+            this.line = line;
+        }
+
+        private Document parse() {
+            Integer id = null;
+            String text = null;
+            expect('{');
+            skipWhitespace();
+            if (peek() != '}') {
+                do {
+                    skipWhitespace();
+                    String key = parseString();
+                    expect(':');
+                    skipWhitespace();
+                    switch (key) {
+                        case "id" -> id = parseInteger();
+                        case "text" -> text = parseString();
+                        default -> skipValue();
+                    }
+                    skipWhitespace();
+                } while (tryConsume(','));
+            }
+            expect('}');
+            if (id == null || text == null) {
+                throw new IllegalArgumentException("the id and the text are required");
+            }
+            return new Document(id, text);
+        }
+
+        private int parseInteger() {
+            int start = index;
+            if (peek() == '-') {
+                index += 1;
+            }
+            while (index < line.length() && Character.isDigit(line.charAt(index))) {
+                index += 1;
+            }
+            return Integer.parseInt(line.substring(start, index));
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char current = next();
+                if (current == '"') {
+                    return value.toString();
+                }
+                if (current != '\\') {
+                    value.append(current);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (index + 4 > line.length()) {
+                            throw new IllegalArgumentException("truncated unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(line.substring(index, index + 4), 16));
+                        index += 4;
+                    }
+                    default -> throw new IllegalArgumentException("invalid escape \\" + escaped);
+                }
+            }
+        }
+
+        /**
+         * Skips a value of a field which is not read, nested objects and arrays included.
+         */
+        private void skipValue() {
+            char current = peek();
+            if (current == '"') {
+                parseString();
+            } else if (current == '{' || current == '[') {
+                int depth = 0;
+                do {
+                    current = peek();
+                    if (current == '"') {
+                        parseString();
+                        continue;
+                    }
+                    if (current == '{' || current == '[') {
+                        depth += 1;
+                    } else if (current == '}' || current == ']') {
+                        depth -= 1;
+                    }
+                    index += 1;
+                } while (depth > 0);
+            } else {
+                while (index < line.length() && ",}".indexOf(line.charAt(index)) < 0 && !Character.isWhitespace(line.charAt(index))) {
+                    index += 1;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (index < line.length() && Character.isWhitespace(line.charAt(index))) {
+                index += 1;
+            }
+        }
+
+        private void expect(char expected) {
+            skipWhitespace();
+            if (next() != expected) {
+                throw new IllegalArgumentException("expected '" + expected + "' at column " + index);
+            }
+        }
+
+        private boolean tryConsume(char expected) {
+            if (index < line.length() && line.charAt(index) == expected) {
+                index += 1;
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            if (index >= line.length()) {
+                throw new IllegalArgumentException("unexpected end of line");
+            }
+            return line.charAt(index);
+        }
+
+        private char next() {
+            char current = peek();
+            index += 1;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+/**
+ * IndexReader gives the searcher read access to an index.
+ * <p>
+ * Documents are addressed by their dense ordinal. A deleted document keeps its ordinal, and its postings, until the
+ * index is compacted.
+ */
+interface IndexReader {
+    /**
+     * Returns the number of indexed documents, without the deleted ones.
+     */
+    int getIndexSize();
+
+    /**
+     * Returns the mean length of the indexed documents.
+     */
+    double getMeanDocumentLength();
+
+    /**
+     * Returns the length of the longest indexed document.
+     */
+    int getMaxDocumentLength();
+
+    /**
+     * Returns the version of the index, it changes every time the index changes.
+     */
+    long getVersion();
+
+    /**
+     * Returns the id of the given normalized term or -1 if the term is not indexed.
+     *
+     * @param term - The term.
+     */
+    int getTermId(String term);
+
+    /**
+     * Returns the postings of the term with the given id, they may include deleted documents.
+     *
+     * @param termId - The term id.
+     */
+    Postings getPostings(int termId);
+
+    /**
+     * Returns the number of documents in which the term occurs, without the deleted ones.
+     *
+     * @param termId - The term id.
+     */
+    int getDocumentFrequency(int termId);
+
+    /**
+     * Checks if the document with the given ordinal was deleted.
+     *
+     * @param ordinal - The document ordinal.
+     */
+    boolean isDeleted(int ordinal);
+
+    /**
+     * Returns the length of the document with the given ordinal.
+     *
+     * @param ordinal - The document ordinal.
+     */
+    int getDocumentLength(int ordinal);
+
+    /**
+     * Returns the id of the document with the given ordinal.
+     *
+     * @param ordinal - The document ordinal.
+     */
+    int getDocumentId(int ordinal);
+
+    /**
+     * Returns the document with the given ordinal.
+     *
+     * @param ordinal - The document ordinal.
+     */
+    Document getDocument(int ordinal);
+}
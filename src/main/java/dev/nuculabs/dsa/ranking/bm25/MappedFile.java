@@ -0,0 +1,137 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import utils.BufferReleaser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFile is a read-only, memory-mapped file addressed by long offsets.
+ * <p>
+ * A mapped buffer can't address more than 2 GiB, so the file is mapped in pages of at most 1 GiB. A value or a range
+ * inside a page is read straight from it, one which straddles two pages is copied out of them into a heap buffer.
+ */
+class MappedFile implements Closeable {
+    static final int MAXIMUM_PAGE_BYTES = 1 << 30;
+
+    private final ByteBuffer[] pages;
+    private final int pageShift;
+    private final long pageMask;
+    private final long size;
+
+    /**
+     * Maps a file.
+     *
+     * @param file             - The file.
+     * @param maximumPageBytes - The maximum size of a page, it is rounded down to a power of two.
+     */
+    MappedFile(Path file, int maximumPageBytes) throws IOException {
+        if (maximumPageBytes <= 0) {
+            throw new IllegalArgumentException("maximum page bytes must be positive");
+        }
+        pageShift = 31 - Integer.numberOfLeadingZeros(maximumPageBytes);
+        pageMask = (1L << pageShift) - 1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            pages = new ByteBuffer[Math.toIntExact((size + pageMask) >>> pageShift)];
+            for (int i = 0; i < pages.length; i++) {
+                long position = (long) i << pageShift;
+                pages[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(pageMask + 1, size - position));
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     */
+    long size() {
+        return size;
+    }
+
+    byte get(long offset) {
+        return page(offset).get(position(offset));
+    }
+
+    int getInt(long offset) {
+        ByteBuffer page = page(offset);
+        int position = position(offset);
+        if (position + Integer.BYTES <= page.limit()) {
+            return page.getInt(position);
+        }
+        return copy(offset, Integer.BYTES).getInt(0);
+    }
+
+    long getLong(long offset) {
+        ByteBuffer page = page(offset);
+        int position = position(offset);
+        if (position + Long.BYTES <= page.limit()) {
+            return page.getLong(position);
+        }
+        return copy(offset, Long.BYTES).getLong(0);
+    }
+
+    /**
+     * Copies the bytes at the given offset into the destination, across pages if needed.
+     *
+     * @param offset      - The offset in the file.
+     * @param destination - The destination, it is filled entirely.
+     */
+    void get(long offset, byte[] destination) {
+        int copied = 0;
+        while (copied < destination.length) {
+            ByteBuffer page = page(offset + copied);
+            int position = position(offset + copied);
+            int length = Math.min(destination.length - copied, page.limit() - position);
+            page.get(position, destination, copied, length);
+            copied += length;
+        }
+    }
+
+    /**
+     * Returns a buffer of the given range, a view of the page which holds it or a copy if it straddles two pages.
+     *
+     * @param offset - The offset in the file.
+     * @param length - The length of the range.
+     */
+    ByteBuffer slice(long offset, int length) {
+        if (length == 0) {
+            // An empty range may start at the end of the file.
+            return ByteBuffer.allocate(0);
+        }
+        ByteBuffer page = page(offset);
+        int position = position(offset);
+        if (position + length <= page.limit()) {
+            return page.slice(position, length);
+        }
+        return copy(offset, length);
+    }
+
+    private ByteBuffer copy(long offset, int length) {
+        byte[] bytes = new byte[length];
+        get(offset, bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private ByteBuffer page(long offset) {
+        if (offset < 0 || offset >= size) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is outside of the file");
+        }
+        return pages[(int) (offset >>> pageShift)];
+    }
+
+    private int position(long offset) {
+        return (int) (offset & pageMask);
+    }
+
+    /**
+     * Unmaps the pages right away, the file must not be read anymore.
+     */
+    @Override
+    public void close() {
+        BufferReleaser.release(pages);
+    }
+}
@@ -0,0 +1,20 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.List;
+
+/**
+ * PhraseQuery matches the documents which contain the terms at consecutive positions, in the given order.
+ * <p>
+ * A phrase is scored with bm25+ like a single term: its frequency is the number of times the phrase occurs in the
+ * document and its IDF is the sum of the IDFs of its terms.
+ *
+ * @param terms - The terms of the phrase.
+ */
+public record PhraseQuery(List<String> terms) implements Query {
+    public PhraseQuery {
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("a phrase must have at least one term");
+        }
+        terms = List.copyOf(terms);
+    }
+}
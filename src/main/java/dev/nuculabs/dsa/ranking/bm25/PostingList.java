@@ -0,0 +1,506 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * PostingList holds the postings of a single term in a compressed form.
+ * <p>
+ * The postings reference documents by their dense index ordinal and must be added in increasing document order. Each
+ * posting is stored as the delta to the previous document followed by the term frequency, both using variable-byte
+ * encoding: 7 bits per byte, the high bit marks that another byte follows. Small gaps and frequencies take one byte.
+ * <p>
+ * The postings are grouped in blocks of {@link #BLOCK_SIZE}. For every full block a skip entry records the last
+ * document of the block and where the next block starts, which lets a {@link Cursor} jump over whole blocks when
+ * advancing to a target document.
+ * <p>
+ * A positional list also stores the positions at which the term occurs in every document, which phrase queries need.
+ * The positions are kept apart from the postings, as the delta to the previous position of the same document, so the
+ * queries which don't need them only skip over them when they are asked for. The skip entries record the position
+ * offset of each block too.
+ * <p>
+ * Besides the postings it keeps track of the highest term frequency and of the shortest document, which are used to
+ * compute an upper bound of the score any document can get for the term.
+ */
+public class PostingList implements Postings {
+    /**
+     * Returned by a cursor when it is exhausted.
+     */
+    public static final int NO_MORE_DOCUMENTS = Integer.MAX_VALUE;
+
+    /**
+     * The number of postings in a block.
+     */
+    static final int BLOCK_SIZE = 128;
+
+    private byte[] data = new byte[8];
+    private int dataLength = 0;
+
+    /**
+     * The encoded positions, null if the list is not positional.
+     */
+    private byte[] positionData;
+    private int positionDataLength = 0;
+
+    /**
+     * Skip entries, the last document of each full block and the offsets at which the next block starts.
+     */
+    private int[] skipDocuments = new int[0];
+    private int[] skipOffsets = new int[0];
+    private int[] skipPositionOffsets = new int[0];
+
+    private int size = 0;
+    private int lastDocument = -1;
+    private int maxTermFrequency = 0;
+    private int minDocumentLength = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a posting list without positions.
+     */
+    public PostingList() {
+        this(false);
+    }
+
+    /**
+     * Constructs a posting list.
+     *
+     * @param positional - Whether the list stores the positions at which the term occurs.
+     */
+    public PostingList(boolean positional) {
+        this.positionData = positional ? new byte[8] : null;
+    }
+
+    /**
+     * Checks if the list stores the positions at which the term occurs.
+     */
+    public boolean isPositional() {
+        return positionData != null;
+    }
+
+    /**
+     * Adds a posting to a list without positions.
+     *
+     * @param document       - The document ordinal, must be greater than the last added one.
+     * @param termFrequency  - How many times the term occurs in the document.
+     * @param documentLength - The number of tokens of the document.
+     */
+    public void add(int document, int termFrequency, int documentLength) {
+        if (isPositional()) {
+            throw new IllegalStateException("the positions of a positional posting list must be given");
+        }
+        append(document, termFrequency);
+        maxTermFrequency = Math.max(maxTermFrequency, termFrequency);
+        minDocumentLength = Math.min(minDocumentLength, documentLength);
+    }
+
+    /**
+     * Adds a posting to a positional list, the term frequency is the number of positions.
+     *
+     * @param document       - The document ordinal, must be greater than the last added one.
+     * @param positions      - The positions at which the term occurs, in increasing order.
+     * @param termFrequency  - How many times the term occurs in the document, the number of positions to add.
+     * @param documentLength - The number of tokens of the document.
+     */
+    public void add(int document, int[] positions, int termFrequency, int documentLength) {
+        if (!isPositional()) {
+            throw new IllegalStateException("the posting list doesn't store positions");
+        }
+        if (document <= lastDocument) {
+            throw new IllegalArgumentException("documents must be added in increasing order");
+        }
+        appendPositions(positions, termFrequency);
+        append(document, termFrequency);
+        maxTermFrequency = Math.max(maxTermFrequency, termFrequency);
+        minDocumentLength = Math.min(minDocumentLength, documentLength);
+    }
+
+    /**
+     * Adds all the postings of another list, whose documents must all be greater than the last added one. Both lists
+     * must either store positions or not.
+     *
+     * @param other - The other posting list.
+     */
+    public void addAll(PostingList other) {
+        if (isPositional() != other.isPositional()) {
+            throw new IllegalArgumentException("both posting lists must either store positions or not");
+        }
+        Cursor cursor = other.cursor();
+        while (cursor.next() != NO_MORE_DOCUMENTS) {
+            if (isPositional()) {
+                appendPositions(cursor.positions(), cursor.termFrequency());
+            }
+            append(cursor.document(), cursor.termFrequency());
+        }
+        maxTermFrequency = Math.max(maxTermFrequency, other.maxTermFrequency);
+        minDocumentLength = Math.min(minDocumentLength, other.minDocumentLength);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getMaxTermFrequency() {
+        return maxTermFrequency;
+    }
+
+    @Override
+    public int getMinDocumentLength() {
+        return minDocumentLength;
+    }
+
+    /**
+     * Returns the number of bytes used by the encoded postings, the positions and the skip entries.
+     */
+    public long getSizeInBytes() {
+        int skipEntryInts = isPositional() ? 3 : 2;
+        return dataLength + positionDataLength + (long) skipEntryInts * Integer.BYTES * (size / BLOCK_SIZE);
+    }
+
+    @Override
+    public Cursor cursor() {
+        return cursor(data, dataLength, positionData, positionDataLength, skipDocuments, skipOffsets, skipPositionOffsets, size);
+    }
+
+    /**
+     * Returns an immutable view of the postings added so far, the postings added later are not visible through it.
+     * <p>
+     * The view shares the arrays of the list instead of copying them. That is safe because the list never rewrites
+     * what it encoded: it only appends past the end of the view, and it replaces the arrays with copies when they grow.
+     */
+    Postings freeze() {
+        return new FrozenPostings(data, dataLength, positionData, positionDataLength, skipDocuments, skipOffsets,
+                skipPositionOffsets, size, maxTermFrequency, minDocumentLength);
+    }
+
+    private static Cursor cursor(byte[] data, int dataLength, byte[] positionData, int positionDataLength,
+                                 int[] skipDocuments, int[] skipOffsets, int[] skipPositionOffsets, int size) {
+        int blocks = size / BLOCK_SIZE;
+        return new Cursor(
+                ByteBuffer.wrap(data, 0, dataLength).slice(),
+                positionData != null ? ByteBuffer.wrap(positionData, 0, positionDataLength).slice() : null,
+                IntBuffer.wrap(skipDocuments, 0, blocks).slice(),
+                IntBuffer.wrap(skipOffsets, 0, blocks).slice(),
+                positionData != null ? IntBuffer.wrap(skipPositionOffsets, 0, blocks).slice() : null,
+                size
+        );
+    }
+
+    /**
+     * Returns the number of encoded bytes, without the positions and the skip entries.
+     */
+    int getEncodedLength() {
+        return dataLength;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded positions, -1 if the list is not positional.
+     */
+    int getEncodedPositionsLength() {
+        return isPositional() ? positionDataLength : -1;
+    }
+
+    /**
+     * Writes the encoded postings followed by the skip entries, first the documents and then the offsets. A positional
+     * list then writes the position offsets of the skip entries and the encoded positions.
+     *
+     * @param output - The output.
+     */
+    void writeTo(DataOutput output) throws IOException {
+        output.write(data, 0, dataLength);
+        int blocks = size / BLOCK_SIZE;
+        for (int i = 0; i < blocks; i++) {
+            output.writeInt(skipDocuments[i]);
+        }
+        for (int i = 0; i < blocks; i++) {
+            output.writeInt(skipOffsets[i]);
+        }
+        if (isPositional()) {
+            for (int i = 0; i < blocks; i++) {
+                output.writeInt(skipPositionOffsets[i]);
+            }
+            output.write(positionData, 0, positionDataLength);
+        }
+    }
+
+    private void append(int document, int termFrequency) {
+        if (document <= lastDocument) {
+            throw new IllegalArgumentException("documents must be added in increasing order");
+        }
+        writeVarInt(document - lastDocument - 1);
+        writeVarInt(termFrequency);
+        lastDocument = document;
+        size += 1;
+
+        if (size % BLOCK_SIZE == 0) {
+            addSkipEntry(document, dataLength);
+        }
+    }
+
+    private void appendPositions(int[] positions, int count) {
+        for (int i = 1; i < count; i++) {
+            if (positions[i] <= positions[i - 1]) {
+                throw new IllegalArgumentException("positions must be given in increasing order");
+            }
+        }
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            if (positionDataLength + 5 > positionData.length) {
+                positionData = Arrays.copyOf(positionData, Math.max(positionData.length * 2, positionDataLength + 5));
+            }
+            positionDataLength = writeVarInt(positionData, positionDataLength, positions[i] - previous);
+            previous = positions[i];
+        }
+    }
+
+    private void writeVarInt(int value) {
+        if (dataLength + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + 5));
+        }
+        dataLength = writeVarInt(data, dataLength, value);
+    }
+
+    /**
+     * Writes the value at the given offset of the buffer, which must have room for 5 bytes.
+     *
+     * @return The offset after the value.
+     */
+    private static int writeVarInt(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    private void addSkipEntry(int document, int offset) {
+        int block = size / BLOCK_SIZE - 1;
+        if (block == skipDocuments.length) {
+            skipDocuments = Arrays.copyOf(skipDocuments, Math.max(4, block * 2));
+            skipOffsets = Arrays.copyOf(skipOffsets, Math.max(4, block * 2));
+            skipPositionOffsets = Arrays.copyOf(skipPositionOffsets, Math.max(4, block * 2));
+        }
+        skipDocuments[block] = document;
+        skipOffsets[block] = offset;
+        skipPositionOffsets[block] = positionDataLength;
+    }
+
+    /**
+     * FrozenPostings is the immutable view of a posting list returned by {@link #freeze()}.
+     */
+    private record FrozenPostings(byte[] data, int dataLength, byte[] positionData, int positionDataLength,
+                                  int[] skipDocuments, int[] skipOffsets, int[] skipPositionOffsets, int size,
+                                  int maxTermFrequency, int minDocumentLength) implements Postings {
+        @Override
+        public int getMaxTermFrequency() {
+            return maxTermFrequency;
+        }
+
+        @Override
+        public int getMinDocumentLength() {
+            return minDocumentLength;
+        }
+
+        @Override
+        public Cursor cursor() {
+            return PostingList.cursor(data, dataLength, positionData, positionDataLength, skipDocuments, skipOffsets,
+                    skipPositionOffsets, size);
+        }
+    }
+
+    /**
+     * Cursor iterates the postings in increasing document order.
+     * <p>
+     * It decodes the postings from buffers, so it works the same over a posting list held in the heap and over one
+     * mapped from a segment file. A cursor of a posting list sees the postings which were added before it was created.
+     * <p>
+     * The positions are decoded only when asked for. The cursor counts the positions of the postings it moves past
+     * and skips over them the next time positions are read.
+     */
+    public static class Cursor {
+        private final ByteBuffer data;
+        private final ByteBuffer positionData;
+        private final IntBuffer skipDocuments;
+        private final IntBuffer skipOffsets;
+        private final IntBuffer skipPositionOffsets;
+        private final int size;
+        private int index = -1;
+        private int offset = 0;
+        private int document = -1;
+        private int termFrequency = 0;
+        private int scannedPostings = 0;
+
+        private int positionOffset = 0;
+        private int skippedPositions = 0;
+        private boolean positionsRead = true;
+        private int[] positions = new int[8];
+
+        /**
+         * Constructs a cursor.
+         *
+         * @param data                - The encoded postings.
+         * @param positionData        - The encoded positions, null if the list is not positional.
+         * @param skipDocuments       - The last document of each full block.
+         * @param skipOffsets         - The offset at which the block following each full block starts.
+         * @param skipPositionOffsets - The position offset at which the block following each full block starts, null
+         *                            if the list is not positional.
+         * @param size                - The number of postings.
+         */
+        Cursor(ByteBuffer data, ByteBuffer positionData, IntBuffer skipDocuments, IntBuffer skipOffsets,
+               IntBuffer skipPositionOffsets, int size) {
+            this.data = data;
+            this.positionData = positionData;
+            this.skipDocuments = skipDocuments;
+            this.skipOffsets = skipOffsets;
+            this.skipPositionOffsets = skipPositionOffsets;
+            this.size = size;
+        }
+
+        /**
+         * Returns the current document, -1 before the first call to next or advance.
+         */
+        public int document() {
+            return document;
+        }
+
+        /**
+         * Returns the term frequency of the current document.
+         */
+        public int termFrequency() {
+            return termFrequency;
+        }
+
+        /**
+         * Returns the number of postings the cursor decoded, the postings of the skipped blocks are not counted.
+         */
+        public int getScannedPostings() {
+            return scannedPostings;
+        }
+
+        /**
+         * Returns the positions at which the term occurs in the current document, in increasing order.
+         * <p>
+         * The first {@link #termFrequency()} entries of the returned array are valid until the cursor moves.
+         */
+        public int[] positions() {
+            if (positionData == null) {
+                throw new IllegalStateException("the posting list doesn't store positions");
+            }
+            if (!positionsRead) {
+                for (; skippedPositions > 0; skippedPositions--) {
+                    while (positionData.get(positionOffset++) < 0) {
+                        // Skip the continuation bytes.
+                    }
+                }
+                if (positions.length < termFrequency) {
+                    positions = new int[Math.max(termFrequency, positions.length * 2)];
+                }
+                int position = 0;
+                for (int i = 0; i < termFrequency; i++) {
+                    position += readPositionVarInt();
+                    positions[i] = position;
+                }
+                positionsRead = true;
+            }
+            return positions;
+        }
+
+        /**
+         * Moves to the next posting.
+         *
+         * @return The next document or {@link #NO_MORE_DOCUMENTS}.
+         */
+        public int next() {
+            index += 1;
+            if (index >= size) {
+                index = size;
+                termFrequency = 0;
+                return document = NO_MORE_DOCUMENTS;
+            }
+            if (!positionsRead) {
+                skippedPositions += termFrequency;
+            }
+            document += readVarInt() + 1;
+            termFrequency = readVarInt();
+            scannedPostings += 1;
+            positionsRead = positionData == null;
+            return document;
+        }
+
+        /**
+         * Moves to the first posting whose document is greater or equal to the target.
+         * Whole blocks are skipped using the skip entries.
+         *
+         * @param target - The target document.
+         * @return The document the cursor is positioned on or {@link #NO_MORE_DOCUMENTS}.
+         */
+        public int advance(int target) {
+            if (document >= target) {
+                return document;
+            }
+            int fullBlocks = size / BLOCK_SIZE;
+            int block = (index + 1) / BLOCK_SIZE;
+            if (block < fullBlocks && skipDocuments.get(block) < target) {
+                // Find the last full block which ends before the target and continue right after it. Gallop over the
+                // skip entries first, probing blocks at doubling distances, so near targets are found in a few steps,
+                // then binary search the last step.
+                int low = block;
+                int step = 1;
+                while (low + step < fullBlocks && skipDocuments.get(low + step) < target) {
+                    low += step;
+                    step *= 2;
+                }
+                int high = Math.min(low + step, fullBlocks) - 1;
+                while (low < high) {
+                    int middle = (low + high + 1) >>> 1;
+                    if (skipDocuments.get(middle) < target) {
+                        low = middle;
+                    } else {
+                        high = middle - 1;
+                    }
+                }
+                index = (low + 1) * BLOCK_SIZE - 1;
+                offset = skipOffsets.get(low);
+                document = skipDocuments.get(low);
+                if (positionData != null) {
+                    positionOffset = skipPositionOffsets.get(low);
+                    skippedPositions = 0;
+                    positionsRead = true;
+                }
+            }
+            while (document < target) {
+                next();
+            }
+            return document;
+        }
+
+        private int readPositionVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = positionData.get(positionOffset++);
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data.get(offset++);
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+/**
+ * Postings gives read access to the postings of a single term.
+ */
+public interface Postings {
+    /**
+     * Returns the number of documents in which the term occurs.
+     */
+    int size();
+
+    /**
+     * Returns the highest term frequency of the postings.
+     */
+    int getMaxTermFrequency();
+
+    /**
+     * Returns the length of the shortest document of the postings.
+     */
+    int getMinDocumentLength();
+
+    /**
+     * Returns a new cursor positioned before the first posting.
+     */
+    PostingList.Cursor cursor();
+}
@@ -0,0 +1,30 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.List;
+
+/**
+ * Query is a structured query, executed by the search methods of the indexes.
+ * <p>
+ * A query is either a single term, a phrase or a boolean combination of other queries. The terms are normalized with
+ * {@link Tokenizer#normalize(CharSequence)} before they are looked up, like the terms given to the term and terms
+ * queries.
+ */
+public sealed interface Query permits TermQuery, PhraseQuery, BooleanQuery {
+    /**
+     * Returns a query matching the documents which contain the term.
+     *
+     * @param term - The term.
+     */
+    static Query term(String term) {
+        return new TermQuery(term);
+    }
+
+    /**
+     * Returns a query matching the documents which contain the terms next to each other, in the given order.
+     *
+     * @param terms - The terms of the phrase.
+     */
+    static Query phrase(String... terms) {
+        return new PhraseQuery(List.of(terms));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import dev.nuculabs.dsa.ranking.bm25.metrics.MetricsListener;
+import utils.Pair;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * QueryResultCache holds the results of the most recently used queries of an index.
+ * <p>
+ * A query is keyed by its normalized terms, in the order they were given, and by the number of requested results. The
+ * order is part of the key because the scores are summed in that order and the cached results must be the same, bit
+ * for bit, as those of the query. The least recently used query is evicted once the cache is full.
+ * <p>
+ * The cache holds the results of a single version of the index: a lookup with a newer version drops all the cached
+ * results first. It is thread-safe, the results are computed outside the lock, so two threads missing the same query
+ * at once both compute it.
+ */
+public class QueryResultCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, List<Pair<Double, Document>>> results;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long version = -1;
+    private volatile MetricsListener metricsListener = null;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity - The maximum number of cached queries.
+     */
+    QueryResultCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Pair<Double, Document>>> eldest) {
+                return size() > QueryResultCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the maximum number of cached queries.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of cached queries.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries which had to be executed.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Sets the listener notified of every lookup.
+     *
+     * @param listener - The listener, null to stop notifying.
+     */
+    void setMetricsListener(MetricsListener listener) {
+        this.metricsListener = listener;
+    }
+
+    /**
+     * Returns the cached results of a query, executing and caching it on a miss.
+     *
+     * @param version - The version of the index.
+     * @param terms   - The query terms.
+     * @param k       - The number of requested results, 0 for all of them.
+     * @param query   - Executes the query.
+     * @return The results, a new list the caller may modify, like the results of an uncached query.
+     */
+    List<Pair<Double, Document>> get(long version, String[] terms, int k, Supplier<List<Pair<Double, Document>>> query) {
+        Key key = new Key(List.of(Tokenizer.normalize(terms)), k);
+
+        synchronized (this) {
+            if (this.version != version) {
+                results.clear();
+                this.version = version;
+            }
+            List<Pair<Double, Document>> cached = results.get(key);
+            if (cached != null) {
+                hits.increment();
+                notifyLookup(true);
+                return new ArrayList<>(cached);
+            }
+        }
+
+        misses.increment();
+        notifyLookup(false);
+        List<Pair<Double, Document>> computed = query.get();
+        synchronized (this) {
+            // The index may have changed while the query was executed, its results belong to an older version then.
+            if (this.version == version) {
+                results.put(key, List.copyOf(computed));
+            }
+        }
+        return computed;
+    }
+
+    private void notifyLookup(boolean hit) {
+        MetricsListener listener = metricsListener;
+        if (listener != null) {
+            listener.onCacheLookup(hit);
+        }
+    }
+
+    /**
+     * A query, its normalized terms and the number of requested results.
+     */
+    private record Key(List<String> terms, int k) {
+    }
+}
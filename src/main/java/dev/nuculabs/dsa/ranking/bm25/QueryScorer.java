@@ -0,0 +1,455 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * QueryScorer iterates the documents matched by a {@link Query}, in increasing document order, and scores them.
+ * <p>
+ * Scorers are combined into a tree mirroring the query. A scorer can also score a document it doesn't match, which is
+ * how the clauses that don't drive the iteration, like the SHOULD clauses next to MUST ones, are scored: the terms and
+ * phrases which don't occur in the document are scored as if they occurred zero times, which still adds the delta
+ * part of bm25+.
+ */
+abstract class QueryScorer {
+    /**
+     * RsvFunction computes the bm25+ RSV of a term, see {@link Bm25PlusSearcher}.
+     */
+    @FunctionalInterface
+    interface RsvFunction {
+        double compute(double inverseDocumentFrequencyLog, int termFrequency, double lengthNormalization);
+    }
+
+    /**
+     * Returns the current document, -1 before the first call to {@link #next()} and
+     * {@link PostingList#NO_MORE_DOCUMENTS} once the scorer is exhausted.
+     */
+    abstract int document();
+
+    /**
+     * Moves to the next matching document.
+     *
+     * @return The next document or {@link PostingList#NO_MORE_DOCUMENTS}.
+     */
+    abstract int next();
+
+    /**
+     * Moves to the first matching document greater than or equal to the target, the target must be greater than the
+     * current document.
+     *
+     * @param target - The target document.
+     * @return The document or {@link PostingList#NO_MORE_DOCUMENTS}.
+     */
+    abstract int advance(int target);
+
+    /**
+     * Returns an estimate of the number of matching documents, used to order the scorers of a conjunction.
+     */
+    abstract long cost();
+
+    /**
+     * Scores a document which is not behind the current document, moving the scorer to it if needed.
+     *
+     * @param document            - The document.
+     * @param lengthNormalization - The length normalization of the document.
+     */
+    abstract double score(int document, double lengthNormalization);
+
+    /**
+     * Matches nothing, the scorer of a query without clauses that can match.
+     */
+    static final class EmptyScorer extends QueryScorer {
+        private int document = -1;
+
+        @Override
+        int document() {
+            return document;
+        }
+
+        @Override
+        int next() {
+            return document = PostingList.NO_MORE_DOCUMENTS;
+        }
+
+        @Override
+        int advance(int target) {
+            return next();
+        }
+
+        @Override
+        long cost() {
+            return 0;
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            return 0;
+        }
+    }
+
+    /**
+     * Scores the documents containing a term.
+     */
+    static final class TermScorer extends QueryScorer {
+        private final PostingList.Cursor cursor;
+        private final long cost;
+        private final double inverseDocumentFrequencyLog;
+        private final RsvFunction rsv;
+
+        TermScorer(PostingList.Cursor cursor, long cost, double inverseDocumentFrequencyLog, RsvFunction rsv) {
+            this.cursor = cursor;
+            this.cost = cost;
+            this.inverseDocumentFrequencyLog = inverseDocumentFrequencyLog;
+            this.rsv = rsv;
+        }
+
+        @Override
+        int document() {
+            return cursor.document();
+        }
+
+        @Override
+        int next() {
+            return cursor.next();
+        }
+
+        @Override
+        int advance(int target) {
+            return cursor.advance(target);
+        }
+
+        @Override
+        long cost() {
+            return cost;
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            if (cursor.document() < document) {
+                cursor.advance(document);
+            }
+            int termFrequency = cursor.document() == document ? cursor.termFrequency() : 0;
+            return rsv.compute(inverseDocumentFrequencyLog, termFrequency, lengthNormalization);
+        }
+    }
+
+    /**
+     * Scores the documents containing a phrase.
+     * <p>
+     * Every term of the phrase has its own cursor, the cursors leapfrog to the documents containing all the terms and
+     * then the positions are intersected: the phrase occurs at position p if the i-th term occurs at p + i.
+     */
+    static final class PhraseScorer extends QueryScorer {
+        private final PostingList.Cursor[] cursors;
+        private final int[] pointers;
+        private final long cost;
+        private final double inverseDocumentFrequencyLog;
+        private final RsvFunction rsv;
+        private int document = -1;
+        private int phraseFrequency = 0;
+
+        PhraseScorer(PostingList.Cursor[] cursors, long cost, double inverseDocumentFrequencyLog, RsvFunction rsv) {
+            this.cursors = cursors;
+            this.pointers = new int[cursors.length];
+            this.cost = cost;
+            this.inverseDocumentFrequencyLog = inverseDocumentFrequencyLog;
+            this.rsv = rsv;
+        }
+
+        @Override
+        int document() {
+            return document;
+        }
+
+        @Override
+        int next() {
+            return advance(document + 1);
+        }
+
+        @Override
+        int advance(int target) {
+            while (true) {
+                int candidate = leapfrog(cursors, target);
+                if (candidate == PostingList.NO_MORE_DOCUMENTS) {
+                    phraseFrequency = 0;
+                    return document = candidate;
+                }
+                phraseFrequency = countPhrases();
+                if (phraseFrequency > 0) {
+                    return document = candidate;
+                }
+                target = candidate + 1;
+            }
+        }
+
+        @Override
+        long cost() {
+            return cost;
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            if (this.document < document) {
+                advance(document);
+            }
+            int frequency = this.document == document ? phraseFrequency : 0;
+            return rsv.compute(inverseDocumentFrequencyLog, frequency, lengthNormalization);
+        }
+
+        /**
+         * Counts the occurrences of the phrase in the document all the cursors are positioned on.
+         */
+        private int countPhrases() {
+            Arrays.fill(pointers, 0);
+            int[] first = cursors[0].positions();
+            int count = 0;
+            for (int j = 0; j < cursors[0].termFrequency(); j++) {
+                int start = first[j];
+                boolean matches = true;
+                for (int i = 1; i < cursors.length && matches; i++) {
+                    int[] positions = cursors[i].positions();
+                    int termFrequency = cursors[i].termFrequency();
+                    while (pointers[i] < termFrequency && positions[pointers[i]] < start + i) {
+                        pointers[i] += 1;
+                    }
+                    matches = pointers[i] < termFrequency && positions[pointers[i]] == start + i;
+                }
+                if (matches) {
+                    count += 1;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Matches the documents matched by all its scorers and scores them with the sum of their scores.
+     */
+    static final class ConjunctionScorer extends QueryScorer {
+        private final QueryScorer[] scorers;
+        private int document = -1;
+
+        ConjunctionScorer(List<QueryScorer> scorers) {
+            // Lead with the scorer matching the fewest documents, the others are only advanced to its candidates.
+            this.scorers = scorers.toArray(QueryScorer[]::new);
+            Arrays.sort(this.scorers, Comparator.comparingLong(QueryScorer::cost));
+        }
+
+        @Override
+        int document() {
+            return document;
+        }
+
+        @Override
+        int next() {
+            return advance(document + 1);
+        }
+
+        @Override
+        int advance(int target) {
+            int candidate = scorers[0].document() < target ? scorers[0].advance(target) : scorers[0].document();
+            int i = 1;
+            while (candidate != PostingList.NO_MORE_DOCUMENTS && i < scorers.length) {
+                int other = scorers[i].document() < candidate ? scorers[i].advance(candidate) : scorers[i].document();
+                if (other == candidate) {
+                    i += 1;
+                } else {
+                    // The other scorer skipped past the candidate, it becomes the new target of the leading scorer.
+                    candidate = scorers[0].advance(other);
+                    i = 1;
+                }
+            }
+            return document = candidate;
+        }
+
+        @Override
+        long cost() {
+            return scorers[0].cost();
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            if (this.document < document) {
+                advance(document);
+            }
+            double score = 0;
+            for (QueryScorer scorer : scorers) {
+                score += scorer.score(document, lengthNormalization);
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Matches the documents matched by any of its scorers and scores them with the sum of their scores.
+     */
+    static final class DisjunctionScorer extends QueryScorer {
+        private final QueryScorer[] scorers;
+        private final long cost;
+        private int document = -1;
+
+        DisjunctionScorer(List<QueryScorer> scorers) {
+            this.scorers = scorers.toArray(QueryScorer[]::new);
+            this.cost = scorers.stream().mapToLong(QueryScorer::cost).sum();
+        }
+
+        @Override
+        int document() {
+            return document;
+        }
+
+        @Override
+        int next() {
+            return advance(document + 1);
+        }
+
+        @Override
+        int advance(int target) {
+            int candidate = PostingList.NO_MORE_DOCUMENTS;
+            for (QueryScorer scorer : scorers) {
+                int current = scorer.document() < target ? scorer.advance(target) : scorer.document();
+                candidate = Math.min(candidate, current);
+            }
+            return document = candidate;
+        }
+
+        @Override
+        long cost() {
+            return cost;
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            if (this.document < document) {
+                advance(document);
+            }
+            double score = 0;
+            for (QueryScorer scorer : scorers) {
+                score += scorer.score(document, lengthNormalization);
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Matches the documents of a scorer which are not matched by the excluded scorer.
+     */
+    static final class ExclusionScorer extends QueryScorer {
+        private final QueryScorer included;
+        private final QueryScorer excluded;
+
+        ExclusionScorer(QueryScorer included, QueryScorer excluded) {
+            this.included = included;
+            this.excluded = excluded;
+        }
+
+        @Override
+        int document() {
+            return included.document();
+        }
+
+        @Override
+        int next() {
+            return skipExcluded(included.next());
+        }
+
+        @Override
+        int advance(int target) {
+            return skipExcluded(included.advance(target));
+        }
+
+        @Override
+        long cost() {
+            return included.cost();
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            return included.score(document, lengthNormalization);
+        }
+
+        private int skipExcluded(int candidate) {
+            while (candidate != PostingList.NO_MORE_DOCUMENTS) {
+                int excludedDocument = excluded.document() < candidate ? excluded.advance(candidate) : excluded.document();
+                if (excludedDocument != candidate) {
+                    return candidate;
+                }
+                candidate = included.next();
+            }
+            return candidate;
+        }
+    }
+
+    /**
+     * Iterates the documents matched by a driving scorer and scores them with the sum of the scores of other scorers.
+     * <p>
+     * The boolean queries use it to score the MUST and SHOULD clauses of the documents matched by the MUST clauses.
+     */
+    static final class SumScorer extends QueryScorer {
+        private final QueryScorer matches;
+        private final QueryScorer[] scorers;
+
+        SumScorer(QueryScorer matches, List<QueryScorer> scorers) {
+            this.matches = matches;
+            this.scorers = scorers.toArray(QueryScorer[]::new);
+        }
+
+        @Override
+        int document() {
+            return matches.document();
+        }
+
+        @Override
+        int next() {
+            return matches.next();
+        }
+
+        @Override
+        int advance(int target) {
+            return matches.advance(target);
+        }
+
+        @Override
+        long cost() {
+            return matches.cost();
+        }
+
+        @Override
+        double score(int document, double lengthNormalization) {
+            if (matches.document() < document) {
+                matches.advance(document);
+            }
+            double score = 0;
+            for (QueryScorer scorer : scorers) {
+                score += scorer.score(document, lengthNormalization);
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Moves the cursors to the first document greater than or equal to the target which all of them contain.
+     *
+     * @return The document or {@link PostingList#NO_MORE_DOCUMENTS}.
+     */
+    private static int leapfrog(PostingList.Cursor[] cursors, int target) {
+        int candidate = target;
+        int i = 0;
+        int agreeing = 0;
+        while (agreeing < cursors.length) {
+            int current = cursors[i].document() < candidate ? cursors[i].advance(candidate) : cursors[i].document();
+            if (current == PostingList.NO_MORE_DOCUMENTS) {
+                return current;
+            }
+            if (current == candidate) {
+                agreeing += 1;
+            } else {
+                candidate = current;
+                agreeing = 1;
+            }
+            i = (i + 1) % cursors.length;
+        }
+        return candidate;
+    }
+}
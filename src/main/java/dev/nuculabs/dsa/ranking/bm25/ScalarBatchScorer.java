@@ -0,0 +1,23 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+/**
+ * ScalarBatchScorer computes the RSVs one posting at a time, the JIT may still auto-vectorize the loop.
+ */
+class ScalarBatchScorer implements BatchScorer {
+    private final double k1;
+    private final double delta;
+
+    ScalarBatchScorer(double k1, double delta) {
+        this.k1 = k1;
+        this.delta = delta;
+    }
+
+    @Override
+    public void score(double inverseDocumentFrequencyLog, double[] termFrequencies, double[] lengthNormalizations, double[] scores, int length) {
+        double k1PlusOne = k1 + 1;
+        for (int i = 0; i < length; i++) {
+            double termFrequency = termFrequencies[i];
+            scores[i] = inverseDocumentFrequencyLog * ((k1PlusOne * termFrequency) / (lengthNormalizations[i] + termFrequency) + delta);
+        }
+    }
+}
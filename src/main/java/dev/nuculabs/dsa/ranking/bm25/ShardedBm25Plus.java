@@ -0,0 +1,233 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import utils.Pair;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * ShardedBm25Plus partitions the documents across several {@link Bm25Plus} shards and queries them in parallel.
+ * <p>
+ * A document goes to the shard picked by the hash of its id. A query is scattered to all the shards on a fork join
+ * pool and their results are gathered and merged. Every shard scores its documents with the statistics of the whole
+ * collection: the number of documents, the mean document length and the document frequency of the queried terms are
+ * summed over the shards before the query is scattered. The scores are therefore the same as those of a single
+ * unsharded index holding all the documents.
+ * <p>
+ * Like {@link Bm25Plus}, it may be queried by many threads at once, but not while documents are being indexed.
+ */
+public class ShardedBm25Plus {
+    private final Bm25Plus[] shards;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a sharded index which queries the shards on the common fork join pool.
+     *
+     * @param shardCount - The number of shards.
+     */
+    public ShardedBm25Plus(int shardCount) {
+        this(shardCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a sharded index.
+     *
+     * @param shardCount - The number of shards.
+     * @param pool       - The pool which queries and indexes the shards.
+     */
+    public ShardedBm25Plus(int shardCount, ForkJoinPool pool) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shard count must be positive");
+        }
+        this.shards = new Bm25Plus[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Bm25Plus();
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the index size, the sum of the shard sizes.
+     */
+    public int getIndexSize() {
+        return Arrays.stream(shards).mapToInt(Bm25Plus::getIndexSize).sum();
+    }
+
+    /**
+     * Indexes a document into its shard.
+     */
+    public void index(Document document) {
+        getShard(document.documentId()).index(document);
+    }
+
+    /**
+     * Indexes all documents, the shards are indexed in parallel.
+     *
+     * @param documents - The documents.
+     */
+    public void indexAll(Document... documents) {
+        List<List<Document>> partitions = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Document document : documents) {
+            partitions.get(getShardIndex(document.documentId())).add(document);
+        }
+        pool.submit(() -> IntStream.range(0, shards.length)
+                .parallel()
+                .forEach(i -> shards[i].indexAll(partitions.get(i).toArray(Document[]::new)))
+        ).join();
+    }
+
+    /**
+     * Deletes a document.
+     *
+     * @param documentId - The document id.
+     * @return True if the document was deleted, false if it was not in the index.
+     */
+    public boolean delete(int documentId) {
+        return getShard(documentId).delete(documentId);
+    }
+
+    /**
+     * Updates a document, the document with the same id is replaced or the document is indexed if it is missing.
+     *
+     * @param document - The new version of the document.
+     */
+    public void update(Document document) {
+        getShard(document.documentId()).update(document);
+    }
+
+    /**
+     * Compacts the shards in parallel, see {@link Bm25Plus#compact()}.
+     */
+    public void compact() {
+        pool.submit(() -> Arrays.stream(shards).parallel().forEach(Bm25Plus::compact)).join();
+    }
+
+    /**
+     * Executes a term query against all the shards and ranks the results using bm25+.
+     *
+     * @param term - The term
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> termQuery(String term) {
+        CollectionStatistics statistics = getStatistics();
+        Bm25PlusSearcher.DocumentFrequencies documentFrequencies = getDocumentFrequencies(term);
+        return gather(scatter(shard -> shard.getSearcher().termQuery(statistics, documentFrequencies, term)), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes a terms query against all the shards and ranks the results using bm25+.
+     *
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> termsQuery(String... terms) {
+        CollectionStatistics statistics = getStatistics();
+        Bm25PlusSearcher.DocumentFrequencies documentFrequencies = getDocumentFrequencies(terms);
+        return gather(scatter(shard -> shard.getSearcher().termsQuery(statistics, documentFrequencies, terms)), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes a terms query against all the shards and returns only the k best ranked results using bm25+.
+     * <p>
+     * Every shard returns its own k best results, the global k best are among them.
+     *
+     * @param k     - The number of results to return.
+     * @param terms - The terms
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> topK(int k, String... terms) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        CollectionStatistics statistics = getStatistics();
+        Bm25PlusSearcher.DocumentFrequencies documentFrequencies = getDocumentFrequencies(terms);
+        return gather(scatter(shard -> shard.getSearcher().topK(k, statistics, documentFrequencies, terms)), k);
+    }
+
+    /**
+     * Executes a structured query against all the shards and returns only the k best ranked results using bm25+.
+     * <p>
+     * Every shard returns its own k best results, the global k best are among them.
+     *
+     * @param query - The query.
+     * @param k     - The number of results to return.
+     * @return The results ranked by score, ties are ranked by document id.
+     */
+    public List<Pair<Double, Document>> search(Query query, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        Set<String> terms = new HashSet<>();
+        Bm25PlusSearcher.collectTerms(query, terms);
+        CollectionStatistics statistics = getStatistics();
+        Bm25PlusSearcher.DocumentFrequencies documentFrequencies = getDocumentFrequencies(terms.toArray(String[]::new));
+        return gather(scatter(shard -> shard.getSearcher().search(statistics, documentFrequencies, query, k)), k);
+    }
+
+    private List<List<Pair<Double, Document>>> scatter(Function<Bm25Plus, List<Pair<Double, Document>>> query) {
+        return pool.submit(() -> Arrays.stream(shards).parallel().map(query).toList()).join();
+    }
+
+    /**
+     * Merges the ranked results of the shards and keeps the k best.
+     */
+    private static List<Pair<Double, Document>> gather(List<List<Pair<Double, Document>>> shardResults, int k) {
+        List<Pair<Double, Document>> results = new ArrayList<>();
+        shardResults.forEach(results::addAll);
+        results.sort(Comparator.<Pair<Double, Document>>comparingDouble(Pair::first).reversed()
+                .thenComparingInt(result -> result.second().documentId()));
+        return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+    }
+
+    /**
+     * Sums the statistics of the shards into the statistics of the whole collection.
+     */
+    private CollectionStatistics getStatistics() {
+        long version = 0;
+        int documentCount = 0;
+        long totalTokens = 0;
+        int maxDocumentLength = 0;
+        for (Bm25Plus shard : shards) {
+            version += shard.getVersion();
+            documentCount += shard.getIndexSize();
+            totalTokens += shard.getTotalTokens();
+            maxDocumentLength = Math.max(maxDocumentLength, shard.getMaxDocumentLength());
+        }
+        double meanDocumentLength = documentCount == 0 ? 0.0 : (double) totalTokens / documentCount;
+        return new CollectionStatistics(version, documentCount, meanDocumentLength, maxDocumentLength);
+    }
+
+    /**
+     * Sums the document frequencies of the terms over the shards.
+     */
+    private Bm25PlusSearcher.DocumentFrequencies getDocumentFrequencies(String... terms) {
+        HashMap<String, Integer> documentFrequencies = new HashMap<>();
+        for (String term : terms) {
+            String normalizedTerm = Tokenizer.normalize(term);
+            if (!documentFrequencies.containsKey(normalizedTerm)) {
+                documentFrequencies.put(normalizedTerm, Arrays.stream(shards).mapToInt(shard -> shard.getDocumentFrequency(normalizedTerm)).sum());
+            }
+        }
+        return (term, termId) -> documentFrequencies.get(term);
+    }
+
+    private Bm25Plus getShard(int documentId) {
+        return shards[getShardIndex(documentId)];
+    }
+
+    private int getShardIndex(int documentId) {
+        return Math.floorMod(Integer.hashCode(documentId), shards.length);
+    }
+}
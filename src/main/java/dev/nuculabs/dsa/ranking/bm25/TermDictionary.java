@@ -0,0 +1,163 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.Arrays;
+
+/**
+ * TermDictionary maps every distinct term to a dense integer id, the first term gets id 0, the second id 1 and so on.
+ * <p>
+ * Each term is stored once and the index works with the ids. The dictionary is an open addressing hash table with
+ * linear probing whose slots hold the term ids, the hashes of the terms are cached so growing the table doesn't
+ * rehash the terms. A term can be looked up straight from the tokenizer buffer, without creating a String.
+ */
+public class TermDictionary {
+    private String[] terms = new String[16];
+    private int[] hashes = new int[16];
+
+    /**
+     * The slots hold the term id + 1, 0 marks an empty slot. The length is a power of two.
+     */
+    private int[] table = new int[32];
+    private int size = 0;
+
+    /**
+     * Returns the id of the term held in the buffer, adding the term if it is not in the dictionary.
+     *
+     * @param buffer - The buffer holding the term.
+     * @param length - The length of the term, starting at the beginning of the buffer.
+     * @return The term id.
+     */
+    public int getOrAdd(char[] buffer, int length) {
+        int hash = hash(buffer, length);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                return add(new String(buffer, 0, length), hash, slot);
+            }
+            if (hashes[id] == hash && equals(terms[id], buffer, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the term, adding the term if it is not in the dictionary.
+     *
+     * @param term - The term.
+     * @return The term id.
+     */
+    public int getOrAdd(String term) {
+        int hash = hash(term);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                return add(term, hash, slot);
+            }
+            if (hashes[id] == hash && terms[id].equals(term)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the term.
+     *
+     * @param term - The term.
+     * @return The term id or -1 if the term is not in the dictionary.
+     */
+    public int get(CharSequence term) {
+        int hash = hash(term);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (hashes[id] == hash && terms[id].contentEquals(term)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the term with the given id.
+     *
+     * @param id - The term id.
+     */
+    public String getTerm(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("invalid term id given");
+        }
+        return terms[id];
+    }
+
+    /**
+     * Returns the number of terms.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(String term, int hash, int slot) {
+        int id = size;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        terms[id] = term;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        size += 1;
+
+        // Keep the load factor under 0.5, so the probe sequences stay short.
+        if (size * 2 > table.length) {
+            resize();
+        }
+        return id;
+    }
+
+    private void resize() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    private static boolean equals(String term, char[] buffer, int length) {
+        if (term.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (term.charAt(i) != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the String hash code of the characters and spreads the high bits into the low ones.
+     */
+    private static int hash(char[] buffer, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(CharSequence term) {
+        int hash = 0;
+        for (int i = 0; i < term.length(); i++) {
+            hash = 31 * hash + term.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
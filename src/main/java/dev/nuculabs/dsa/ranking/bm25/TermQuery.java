@@ -0,0 +1,14 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.Objects;
+
+/**
+ * TermQuery matches the documents which contain a term and scores them with bm25+.
+ *
+ * @param term - The term.
+ */
+public record TermQuery(String term) implements Query {
+    public TermQuery {
+        Objects.requireNonNull(term, "term must not be null");
+    }
+}
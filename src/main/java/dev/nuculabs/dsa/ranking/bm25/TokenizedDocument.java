@@ -1,44 +1,106 @@
 package dev.nuculabs.dsa.ranking.bm25;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class TokenizedDocument {
-    final private Document document;
-    final private List<String> tokens = new ArrayList<>();
+    final private int documentId;
+    final private int[] tokenIds;
 
-    private TokenizedDocument(Document document) {
+    /**
+     * The document, null once its text was dropped in favour of its location in the source file.
+     */
+    private Document document;
+    private DocumentFile source;
+    private long offset;
+
+    private TokenizedDocument(Document document, TermDictionary dictionary) {
+        this.documentId = document.documentId();
         this.document = document;
-        this.tokens.addAll(Arrays.stream(document.text().split(" "))
-                .map(
-                        i -> i.chars()
-                                .filter(Character::isLetterOrDigit)
-                                .mapToObj(j -> String.valueOf((char) j))
-                                .collect(Collectors.joining())
-                )
-                .filter(i -> !i.isEmpty()).map(String::toLowerCase).collect(Collectors.toCollection(ArrayList::new)));
+        var collector = new TokenIdCollector(dictionary);
+        new Tokenizer().tokenize(document.text(), collector);
+        this.tokenIds = Arrays.copyOf(collector.tokenIds, collector.length);
+    }
+
+    /**
+     * Tokenizes the document, the tokens are added to the dictionary.
+     *
+     * @param document   - The document.
+     * @param dictionary - The term dictionary.
+     * @return The tokenized document.
+     */
+    public static TokenizedDocument fromDocument(Document document, TermDictionary dictionary) {
+        return new TokenizedDocument(document, dictionary);
+    }
+
+    /**
+     * Returns the term ids of the tokens, in the order in which they occur in the document.
+     * The array must not be modified.
+     *
+     * @return tokens ids
+     */
+    public int[] getTokenIds() {
+        return tokenIds;
     }
 
-    public static TokenizedDocument fromDocument(Document document) {
-        return new TokenizedDocument(document);
+    /**
+     * Returns the distinct term ids of the tokens, in increasing order.
+     */
+    int[] getDistinctTokenIds() {
+        return Arrays.stream(tokenIds).sorted().distinct().toArray();
     }
 
     /**
-     * Returns the tokenized tokens
-     * @return tokens list
+     * Returns the number of tokens.
      */
-    public List<String> getTokens() {
-        return tokens;
+    public int getLength() {
+        return tokenIds.length;
     }
 
     /**
-     * Returns the document.
+     * Returns the id of the document.
+     */
+    public int getDocumentId() {
+        return documentId;
+    }
+
+    /**
+     * Returns the document, reading it back from its source file if its text was dropped.
      */
     public Document getDocument() {
-        return document;
+        if (document != null) {
+            return document;
+        }
+        try {
+            return source.read(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drops the text of the document, keeping only where it can be read back from.
+     *
+     * @param source - The file the document was read from.
+     * @param offset - The byte offset of the document's line in the file.
+     */
+    void dropText(DocumentFile source, long offset) {
+        this.source = source;
+        this.offset = offset;
+        this.document = null;
+    }
+
+    /**
+     * Replaces every token id with the id it maps to, used when moving the document to another dictionary.
+     *
+     * @param mapping - The mapping of old term id -> new term id.
+     */
+    void remapTokenIds(int[] mapping) {
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = mapping[tokenIds[i]];
+        }
     }
 
     @Override
@@ -46,11 +108,33 @@ public class TokenizedDocument {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TokenizedDocument that = (TokenizedDocument) o;
-        return Objects.equals(document, that.document);
+        return documentId == that.documentId && Objects.equals(document, that.document)
+                && Objects.equals(source, that.source) && offset == that.offset;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(document);
+        return Integer.hashCode(documentId);
+    }
+
+    /**
+     * TokenIdCollector looks up the tokens in the dictionary and collects their ids.
+     */
+    private static class TokenIdCollector implements Tokenizer.TokenConsumer {
+        private final TermDictionary dictionary;
+        private int[] tokenIds = new int[16];
+        private int length = 0;
+
+        private TokenIdCollector(TermDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public void accept(char[] buffer, int length) {
+            if (this.length == tokenIds.length) {
+                tokenIds = Arrays.copyOf(tokenIds, this.length * 2);
+            }
+            tokenIds[this.length++] = dictionary.getOrAdd(buffer, length);
+        }
     }
 }
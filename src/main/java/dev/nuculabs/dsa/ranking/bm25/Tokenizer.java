@@ -0,0 +1,95 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizer splits a text into lowercase tokens in a single pass.
+ * <p>
+ * Tokens are delimited by whitespace (spaces, tabs, new lines and the other Unicode space characters). Inside a token
+ * only the letters and digits are kept, so "O(N)" becomes "on" and "list's" becomes "lists".
+ * <p>
+ * The characters are lowercased and filtered into a reusable buffer which is handed to a {@link TokenConsumer}, so
+ * tokenizing allocates nothing per character or per token. A tokenizer is not thread-safe, use one per thread.
+ */
+public class Tokenizer {
+    private char[] buffer = new char[32];
+
+    /**
+     * TokenConsumer receives the tokens of a text.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+        /**
+         * Accepts a token.
+         * <p>
+         * The buffer is reused for the next token, copy the characters to keep them.
+         *
+         * @param buffer - The buffer holding the token.
+         * @param length - The length of the token, starting at the beginning of the buffer.
+         */
+        void accept(char[] buffer, int length);
+    }
+
+    /**
+     * Tokenizes the text.
+     *
+     * @param text     - The text.
+     * @param consumer - The consumer of the tokens.
+     */
+    public void tokenize(CharSequence text, TokenConsumer consumer) {
+        int length = 0;
+        for (int i = 0, textLength = text.length(); i < textLength; i++) {
+            char character = text.charAt(i);
+            if (isTokenCharacter(character)) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = Character.toLowerCase(character);
+            } else if (length > 0 && (Character.isWhitespace(character) || Character.isSpaceChar(character))) {
+                consumer.accept(buffer, length);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            consumer.accept(buffer, length);
+        }
+    }
+
+    /**
+     * Normalizes a query term the way the tokens of the indexed texts are normalized: only the letters and digits are
+     * kept and they are lowercased character by character, independently of the default locale. "Hello," becomes
+     * "hello" and "C++" becomes "c", like in an indexed text. The searchers, the result cache and the shard document
+     * frequencies all go through this method, so a query term always matches the token of the same text.
+     *
+     * @param term - The query term.
+     * @return The normalized term, empty if the term has no letter or digit.
+     */
+    public static String normalize(CharSequence term) {
+        StringBuilder normalizedTerm = new StringBuilder(term.length());
+        for (int i = 0, termLength = term.length(); i < termLength; i++) {
+            char character = term.charAt(i);
+            if (isTokenCharacter(character)) {
+                normalizedTerm.append(Character.toLowerCase(character));
+            }
+        }
+        return normalizedTerm.toString();
+    }
+
+    /**
+     * Normalizes the query terms with {@link #normalize(CharSequence)}.
+     *
+     * @param terms - The query terms.
+     * @return The normalized terms.
+     */
+    public static String[] normalize(String... terms) {
+        String[] normalizedTerms = new String[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            normalizedTerms[i] = normalize(terms[i]);
+        }
+        return normalizedTerms;
+    }
+
+    private static boolean isTokenCharacter(char character) {
+        return Character.isLetterOrDigit(character);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+/**
+ * IndexMetrics are the measurements of a single index operation.
+ *
+ * @param documents         - The number of indexed documents.
+ * @param tokens            - The number of tokens of the indexed documents.
+ * @param tokenizationNanos - The time spent tokenizing, for a bulk index the wall time of the parallel tokenization.
+ * @param totalNanos        - The total time of the operation.
+ */
+public record IndexMetrics(int documents, long tokens, long tokenizationNanos, long totalNanos) {
+}
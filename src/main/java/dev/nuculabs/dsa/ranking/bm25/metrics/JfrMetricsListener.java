@@ -0,0 +1,105 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JfrMetricsListener turns the measurements into Java Flight Recorder events, so they show up on the timeline of a
+ * recording next to the GC and the other JVM events.
+ * <p>
+ * The events are only built when a recording has them enabled, otherwise a measurement costs a single check.
+ */
+public class JfrMetricsListener implements MetricsListener {
+    @Override
+    public void onIndex(IndexMetrics metrics) {
+        IndexEvent event = new IndexEvent();
+        if (event.shouldCommit()) {
+            event.documents = metrics.documents();
+            event.tokens = metrics.tokens();
+            event.tokenizationNanos = metrics.tokenizationNanos();
+            event.totalNanos = metrics.totalNanos();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onQuery(QueryMetrics metrics) {
+        QueryEvent event = new QueryEvent();
+        if (event.shouldCommit()) {
+            event.type = metrics.type().name();
+            event.terms = metrics.terms();
+            event.postingsScanned = metrics.postingsScanned();
+            event.candidatesScored = metrics.candidatesScored();
+            event.results = metrics.results();
+            event.sortNanos = metrics.sortNanos();
+            event.totalNanos = metrics.totalNanos();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCacheLookup(boolean hit) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (event.shouldCommit()) {
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    @Name("dev.nuculabs.dsa.ranking.bm25.Index")
+    @Label("BM25+ Index")
+    @Category("BM25+")
+    @StackTrace(false)
+    static class IndexEvent extends Event {
+        @Label("Documents")
+        int documents;
+
+        @Label("Tokens")
+        long tokens;
+
+        @Label("Tokenization Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long tokenizationNanos;
+
+        @Label("Total Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long totalNanos;
+    }
+
+    @Name("dev.nuculabs.dsa.ranking.bm25.Query")
+    @Label("BM25+ Query")
+    @Category("BM25+")
+    @StackTrace(false)
+    static class QueryEvent extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Terms")
+        int terms;
+
+        @Label("Postings Scanned")
+        long postingsScanned;
+
+        @Label("Candidates Scored")
+        long candidatesScored;
+
+        @Label("Results")
+        int results;
+
+        @Label("Sort Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long sortNanos;
+
+        @Label("Total Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long totalNanos;
+    }
+
+    @Name("dev.nuculabs.dsa.ranking.bm25.CacheLookup")
+    @Label("BM25+ Cache Lookup")
+    @Category("BM25+")
+    @StackTrace(false)
+    static class CacheLookupEvent extends Event {
+        @Label("Hit")
+        boolean hit;
+    }
+}
@@ -0,0 +1,106 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram records non-negative values, like latencies in nanoseconds, into log-linear buckets like an HDR
+ * histogram does.
+ * <p>
+ * The values below 128 get a bucket each. Above, every power of two range [2^m, 2^(m+1)) is split into 64 buckets of
+ * equal width, so a bucket is never wider than 1/64 of the values it holds and the percentiles are reported within
+ * about 1.6% of the exact value, whatever their magnitude. The buckets cover all the long values in under 4000
+ * counters, recording is lock-free and allocates nothing.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value, negative values are recorded as 0.
+     *
+     * @param value - The value.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the largest recorded value, 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values, 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values fall, the highest value of its bucket.
+     *
+     * @param percentile - The percentile, between 0 and 100.
+     * @return The value or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long values = count.sum();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * values));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(highestValue(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the bucket of a value: the values below 2 * SUB_BUCKETS are their own bucket, the others are shifted
+     * right until they fit in [SUB_BUCKETS, 2 * SUB_BUCKETS) and bucketed by the shift and the shifted value.
+     */
+    private static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+import java.util.List;
+
+/**
+ * MetricsListener receives the measurements of an index as it indexes documents and answers queries.
+ * <p>
+ * The methods are called on the indexing and querying threads, right after the measured operation, so a listener must
+ * be thread-safe and fast. An index without a listener measures nothing, see
+ * {@link dev.nuculabs.dsa.ranking.bm25.Bm25Plus#setMetricsListener(MetricsListener)}.
+ */
+public interface MetricsListener {
+    /**
+     * Called after documents were indexed.
+     *
+     * @param metrics - The measurements of the indexing.
+     */
+    default void onIndex(IndexMetrics metrics) {
+    }
+
+    /**
+     * Called after a query was answered by executing it, the cached answers are reported by
+     * {@link #onCacheLookup(boolean)} only.
+     *
+     * @param metrics - The measurements of the query.
+     */
+    default void onQuery(QueryMetrics metrics) {
+    }
+
+    /**
+     * Called after a query was looked up in the result cache.
+     *
+     * @param hit - Whether the results were cached.
+     */
+    default void onCacheLookup(boolean hit) {
+    }
+
+    /**
+     * Returns a listener which forwards every measurement to all the given listeners, in order.
+     *
+     * @param listeners - The listeners.
+     */
+    static MetricsListener of(MetricsListener... listeners) {
+        List<MetricsListener> targets = List.of(listeners);
+        return new MetricsListener() {
+            @Override
+            public void onIndex(IndexMetrics metrics) {
+                targets.forEach(listener -> listener.onIndex(metrics));
+            }
+
+            @Override
+            public void onQuery(QueryMetrics metrics) {
+                targets.forEach(listener -> listener.onQuery(metrics));
+            }
+
+            @Override
+            public void onCacheLookup(boolean hit) {
+                targets.forEach(listener -> listener.onCacheLookup(hit));
+            }
+        };
+    }
+}
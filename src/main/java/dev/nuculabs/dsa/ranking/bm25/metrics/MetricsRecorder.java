@@ -0,0 +1,122 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MetricsRecorder is a listener which aggregates the measurements into counters and latency histograms.
+ * <p>
+ * The counters are {@link LongAdder}s and the histograms are lock-free, so many threads can record at once without
+ * contending on a lock.
+ */
+public class MetricsRecorder implements MetricsListener {
+    private final LongAdder documentsIndexed = new LongAdder();
+    private final LongAdder tokensIndexed = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder postingsScanned = new LongAdder();
+    private final LongAdder candidatesScored = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LatencyHistogram indexLatency = new LatencyHistogram();
+    private final LatencyHistogram tokenizationLatency = new LatencyHistogram();
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+    private final LatencyHistogram sortLatency = new LatencyHistogram();
+
+    @Override
+    public void onIndex(IndexMetrics metrics) {
+        documentsIndexed.add(metrics.documents());
+        tokensIndexed.add(metrics.tokens());
+        indexLatency.record(metrics.totalNanos());
+        tokenizationLatency.record(metrics.tokenizationNanos());
+    }
+
+    @Override
+    public void onQuery(QueryMetrics metrics) {
+        queries.increment();
+        postingsScanned.add(metrics.postingsScanned());
+        candidatesScored.add(metrics.candidatesScored());
+        queryLatency.record(metrics.totalNanos());
+        sortLatency.record(metrics.sortNanos());
+    }
+
+    @Override
+    public void onCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     */
+    public long getDocumentsIndexed() {
+        return documentsIndexed.sum();
+    }
+
+    /**
+     * Returns the number of tokens of the indexed documents.
+     */
+    public long getTokensIndexed() {
+        return tokensIndexed.sum();
+    }
+
+    /**
+     * Returns the number of executed queries.
+     */
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    /**
+     * Returns the number of postings decoded by the queries.
+     */
+    public long getPostingsScanned() {
+        return postingsScanned.sum();
+    }
+
+    /**
+     * Returns the number of documents scored by the queries.
+     */
+    public long getCandidatesScored() {
+        return candidatesScored.sum();
+    }
+
+    /**
+     * Returns the number of queries answered from the result cache.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of queries missing from the result cache.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the latencies of the index operations, in nanoseconds.
+     */
+    public LatencyHistogram getIndexLatency() {
+        return indexLatency;
+    }
+
+    /**
+     * Returns the time spent tokenizing by the index operations, in nanoseconds.
+     */
+    public LatencyHistogram getTokenizationLatency() {
+        return tokenizationLatency;
+    }
+
+    /**
+     * Returns the latencies of the executed queries, in nanoseconds.
+     */
+    public LatencyHistogram getQueryLatency() {
+        return queryLatency;
+    }
+
+    /**
+     * Returns the time spent ranking the results of the executed queries, in nanoseconds.
+     */
+    public LatencyHistogram getSortLatency() {
+        return sortLatency;
+    }
+}
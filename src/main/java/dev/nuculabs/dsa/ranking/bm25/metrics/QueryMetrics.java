@@ -0,0 +1,25 @@
+package dev.nuculabs.dsa.ranking.bm25.metrics;
+
+/**
+ * QueryMetrics are the measurements of a single query.
+ *
+ * @param type             - The type of the query.
+ * @param terms            - The number of query terms.
+ * @param postingsScanned  - The number of postings decoded from the posting lists, those skipped over are not counted.
+ * @param candidatesScored - The number of documents whose score was computed.
+ * @param results          - The number of results.
+ * @param sortNanos        - The time spent ranking the results.
+ * @param totalNanos       - The total time of the query.
+ */
+public record QueryMetrics(Type type, int terms, long postingsScanned, long candidatesScored, int results,
+                           long sortNanos, long totalNanos) {
+    /**
+     * Type is the type of a query.
+     */
+    public enum Type {
+        TERM,
+        TERMS,
+        TOP_K,
+        SEARCH
+    }
+}
@@ -0,0 +1,55 @@
+package utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees direct and mapped buffers right away instead of waiting for the garbage collector to notice them.
+ * <p>
+ * The JDK offers no public way to do it before the Foreign Memory API, the cleaner of a buffer is invoked through
+ * sun.misc.Unsafe when it is available. A released buffer must not be accessed anymore, reading a released mapping
+ * crashes the JVM.
+ */
+public final class BufferReleaser {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe;
+        Method invokeCleaner;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private BufferReleaser() {
+    }
+
+    /**
+     * Releases the memory of the buffers, the garbage collector does it if Unsafe is not available.
+     *
+     * @param buffers - The direct or mapped buffers, not slices or duplicates of them.
+     */
+    public static void release(ByteBuffer... buffers) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        for (ByteBuffer buffer : buffers) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                // The garbage collector frees the buffer.
+            }
+        }
+    }
+}
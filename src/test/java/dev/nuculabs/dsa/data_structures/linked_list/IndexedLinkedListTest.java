@@ -0,0 +1,105 @@
+package dev.nuculabs.dsa.data_structures.linked_list;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class IndexedLinkedListTest {
+    @Test
+    public void test_getFirstAndLast() {
+        // Setup
+        var empty = IndexedLinkedList.<String>emptyList();
+        var linkedList = IndexedLinkedList.of("First", "Second", "Third");
+
+        // Test
+        Assertions.assertTrue(empty.getFirst().isEmpty());
+        Assertions.assertTrue(empty.getLast().isEmpty());
+        Assertions.assertEquals("First", linkedList.getFirst().orElseThrow());
+        Assertions.assertEquals("Third", linkedList.getLast().orElseThrow());
+    }
+
+    @Test
+    public void test_get() {
+        // Setup
+        var linkedList = new IndexedLinkedList<String>();
+        linkedList.append("First", "Second", "Third");
+
+        // Test
+        Assertions.assertEquals("First", linkedList.get(0).orElseThrow());
+        Assertions.assertEquals("Second", linkedList.get(1).orElseThrow());
+        Assertions.assertEquals("Third", linkedList.get(2).orElseThrow());
+        Assertions.assertTrue(linkedList.get(3).isEmpty());
+        Assertions.assertTrue(linkedList.get(-1).isEmpty());
+    }
+
+    @Test
+    public void test_insertAndDelete() {
+        // Setup
+        var linkedList = IndexedLinkedList.of(1, 2, 3);
+
+        // Test
+        linkedList.insert(0, 0);
+        linkedList.insert(4, 4);
+        linkedList.insert(10, 2);
+        linkedList.delete(0);
+        linkedList.delete(3);
+
+        // Assert
+        Assertions.assertEquals(List.of(1, 10, 2, 4), linkedList.toList());
+        Assertions.assertEquals(4, linkedList.getSize());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> linkedList.insert(5, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> linkedList.delete(4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> linkedList.delete(-1));
+    }
+
+    @Test
+    public void test_reverse() {
+        // Setup
+        var linkedList = IndexedLinkedList.of(1, 2, 3, 4, 5);
+
+        // Test
+        linkedList.reverse();
+        linkedList.insert(6, 1);
+
+        // Assert
+        Assertions.assertEquals(List.of(5, 6, 4, 3, 2, 1), linkedList.toList());
+        Assertions.assertArrayEquals(new Integer[]{5, 6, 4, 3, 2, 1}, linkedList.toArray());
+        Assertions.assertEquals(1, (int) linkedList.getLast().orElseThrow());
+    }
+
+    @Test
+    public void test_randomOperations() {
+        // Setup
+        var linkedList = IndexedLinkedList.<Integer>emptyList();
+        var expected = new ArrayList<Integer>();
+        var random = new Random(7);
+
+        // Test
+        for (int i = 0; i < 20_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || expected.isEmpty()) {
+                int position = random.nextInt(expected.size() + 1);
+                linkedList.insert(i, position);
+                expected.add(position, i);
+            } else if (operation < 8) {
+                int position = random.nextInt(expected.size());
+                linkedList.delete(position);
+                expected.remove(position);
+            } else if (operation < 9) {
+                int position = random.nextInt(expected.size());
+                Assertions.assertEquals(expected.get(position), linkedList.get(position).orElseThrow());
+            } else {
+                linkedList.reverse();
+                Collections.reverse(expected);
+            }
+        }
+
+        // Assert
+        Assertions.assertEquals(expected.size(), linkedList.getSize());
+        Assertions.assertEquals(expected, linkedList.toList());
+    }
+}
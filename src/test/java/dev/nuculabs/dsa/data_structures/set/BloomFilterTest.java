@@ -0,0 +1,91 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+public class BloomFilterTest {
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRate() {
+        // Setup
+        var filter = BloomFilter.<Integer>of(100_000, 0.01);
+
+        // Test
+        for (int i = 0; i < 100_000; i++) {
+            filter.put(i * 2);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(i * 2 + 1)) {
+                falsePositives += 1;
+            }
+        }
+
+        // Assert
+        for (int i = 0; i < 100_000; i++) {
+            Assertions.assertTrue(filter.mightContain(i * 2));
+        }
+        Assertions.assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+        Assertions.assertTrue(filter.getExpectedFalsePositiveProbability() < 0.015);
+        Assertions.assertEquals(7, filter.getHashCount());
+    }
+
+    @Test
+    public void testFalsePositiveRateAtStrictTargets() {
+        for (double target : new double[]{1e-3, 1e-4}) {
+            // Setup
+            var filter = BloomFilter.<Long>of(100_000, target);
+            var random = new SplittableRandom(42);
+
+            // Test
+            for (int i = 0; i < 100_000; i++) {
+                filter.putHash(random.nextLong());
+            }
+            int falsePositives = 0;
+            int queries = 2_000_000;
+            for (int i = 0; i < queries; i++) {
+                if (filter.mightContainHash(random.nextLong())) {
+                    falsePositives += 1;
+                }
+            }
+
+            // Assert
+            double rate = (double) falsePositives / queries;
+            Assertions.assertTrue(rate < target * 1.2, "target " + target + ", false positive rate " + rate);
+            Assertions.assertTrue(filter.getExpectedFalsePositiveProbability() < target * 1.2);
+            Assertions.assertTrue(BloomFilter.falsePositiveProbability(512.0 * 100_000 / filter.getBitCount(), filter.getHashCount()) <= target);
+        }
+    }
+
+    @Test
+    public void testMergeAndSerialization() {
+        // Setup
+        var first = BloomFilter.<String>of(1_000, 0.001);
+        var second = BloomFilter.<String>of(1_000, 0.001);
+        for (int i = 0; i < 500; i++) {
+            first.put("first-" + i);
+            second.put("second-" + i);
+        }
+
+        // Test
+        first.merge(second);
+        var copy = BloomFilter.<String>fromBytes(first.toBytes());
+
+        // Assert
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(copy.mightContain("first-" + i));
+            Assertions.assertTrue(copy.mightContain("second-" + i));
+        }
+        Assertions.assertEquals(first.getBitCount(), copy.getBitCount());
+        Assertions.assertEquals(first.getBitCount() / 8 + 12, first.toBytes().length);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> first.merge(BloomFilter.of(10, 0.1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.fromBytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.of(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.of(10, 1));
+    }
+}
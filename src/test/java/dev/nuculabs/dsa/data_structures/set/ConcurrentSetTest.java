@@ -0,0 +1,79 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentSetTest {
+    @Test
+    public void testInsertAndContains() {
+        // Setup
+        var set = ConcurrentSet.<String>construct();
+
+        // Test
+        boolean inserted = set.insert("SomeElement");
+        boolean insertedAgain = set.insert("SomeElement");
+
+        // Assert
+        Assertions.assertTrue(inserted);
+        Assertions.assertFalse(insertedAgain);
+        Assertions.assertTrue(set.contains("SomeElement"));
+        Assertions.assertFalse(set.contains("AnotherElement"));
+        Assertions.assertTrue(set.remove("SomeElement"));
+        Assertions.assertEquals(0, set.size());
+    }
+
+    @Test
+    public void testConcurrentInserts() throws InterruptedException {
+        // Setup
+        var set = ConcurrentSet.<Integer>of(1, 4, 0.75f);
+        var added = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        // Test
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 10_000;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                // Every element is inserted by two threads, only one of them may add it.
+                for (int i = 0; i < 20_000; i++) {
+                    if (set.insert(offset + i)) {
+                        added.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        Assertions.assertEquals(4, set.getConcurrencyLevel());
+        Assertions.assertEquals(90_000, added.get());
+        Assertions.assertEquals(90_000, set.size());
+        Assertions.assertEquals(90_000, new HashSet<>(set.getValues()).size());
+        for (int i = 0; i < 90_000; i++) {
+            Assertions.assertTrue(set.contains(i));
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConcurrentSet.of(16, 0, 0.75f));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConcurrentSet.of(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConcurrentSet.<String>construct().insert(null));
+    }
+}
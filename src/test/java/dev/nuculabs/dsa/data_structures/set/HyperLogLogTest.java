@@ -0,0 +1,67 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HyperLogLogTest {
+    @Test
+    public void testCardinality() {
+        // Setup
+        var sketch = HyperLogLog.<Integer>of(14);
+
+        // Test
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.add(i);
+            sketch.add(i);
+        }
+
+        // Assert
+        double error = Math.abs(sketch.cardinality() - 1_000_000) / 1_000_000.0;
+        Assertions.assertTrue(error < 3 * sketch.getStandardError(), "error: " + error);
+    }
+
+    @Test
+    public void testSmallCardinality() {
+        // Setup
+        var sketch = HyperLogLog.<String>withStandardError(0.01);
+
+        // Test
+        for (int i = 0; i < 100; i++) {
+            sketch.add("element-" + (i % 50));
+        }
+
+        // Assert
+        Assertions.assertEquals(14, sketch.getPrecision());
+        Assertions.assertEquals(50, sketch.cardinality(), 1);
+        Assertions.assertEquals(0, HyperLogLog.of(10).cardinality());
+    }
+
+    @Test
+    public void testMergeAndSerialization() {
+        // Setup
+        var first = HyperLogLog.<Integer>of(12);
+        var second = HyperLogLog.<Integer>of(12);
+        for (int i = 0; i < 60_000; i++) {
+            first.add(i);
+            second.add(i + 40_000);
+        }
+
+        // Test
+        first.merge(second);
+        var copy = HyperLogLog.<Integer>fromBytes(first.toBytes());
+
+        // Assert
+        Assertions.assertEquals(first.cardinality(), copy.cardinality());
+        Assertions.assertEquals(8 + 4096 * 6 / 8, copy.toBytes().length);
+        double error = Math.abs(copy.cardinality() - 100_000) / 100_000.0;
+        Assertions.assertTrue(error < 3 * copy.getStandardError(), "error: " + error);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> first.merge(HyperLogLog.of(10)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[12]));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HyperLogLog.of(3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HyperLogLog.withStandardError(0.0001));
+    }
+}
@@ -0,0 +1,79 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class LongSetTest {
+    @Test
+    public void testInsertAndContains() {
+        // Setup
+        var set = LongSet.construct();
+
+        // Test
+        boolean inserted = set.insert(42);
+        boolean insertedAgain = set.insert(42);
+
+        // Assert
+        Assertions.assertTrue(inserted);
+        Assertions.assertFalse(insertedAgain);
+        Assertions.assertTrue(set.contains(42));
+        Assertions.assertFalse(set.contains(43));
+        Assertions.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testZero() {
+        // Setup
+        var set = LongSet.construct();
+
+        // Test
+        set.insert(0);
+        set.insert(7);
+
+        // Assert
+        Assertions.assertTrue(set.contains(0));
+        Assertions.assertEquals(2, set.size());
+        Assertions.assertEquals(0, set.toArray()[0]);
+        Assertions.assertTrue(set.remove(0));
+        Assertions.assertFalse(set.contains(0));
+        Assertions.assertFalse(set.remove(0));
+        Assertions.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        // Setup
+        var set = LongSet.of(4, 0.5f);
+        var expected = new HashSet<Long>();
+        var random = new Random(7);
+
+        // Test
+        for (int i = 0; i < 100_000; i++) {
+            long value = (long) (random.nextInt(5_000) - 2_500) << 40;
+            if (random.nextInt(3) > 0) {
+                Assertions.assertEquals(expected.add(value), set.insert(value));
+            } else {
+                Assertions.assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        // Assert
+        Assertions.assertEquals(expected.size(), set.size());
+        Assertions.assertEquals(expected, Arrays.stream(set.toArray()).boxed().collect(Collectors.toSet()));
+        Assertions.assertTrue(set.size() <= set.getCapacity() * 0.5);
+        for (int value = -2_500; value < 2_500; value++) {
+            Assertions.assertEquals(expected.contains((long) value << 40), set.contains((long) value << 40));
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LongSet.of(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LongSet.of(16, 0f));
+    }
+}
@@ -0,0 +1,115 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class OffHeapSetTest {
+    @Test
+    public void testLongKeys() throws IOException {
+        // Setup
+        try (var set = OffHeapSet.allocate(Long.BYTES, 16)) {
+            // Test
+            boolean inserted = set.insert(42L);
+            boolean insertedAgain = set.insert(42L);
+            set.insert(0L);
+
+            // Assert
+            Assertions.assertTrue(inserted);
+            Assertions.assertFalse(insertedAgain);
+            Assertions.assertTrue(set.contains(42L));
+            Assertions.assertTrue(set.contains(0L));
+            Assertions.assertFalse(set.contains(43L));
+            Assertions.assertTrue(set.contains(new byte[]{0, 0, 0, 0, 0, 0, 0, 42}));
+            Assertions.assertEquals(2, set.size());
+        }
+    }
+
+    @Test
+    public void testRandomOperationsAcrossPages() throws IOException {
+        // Setup
+        var expected = new HashSet<Long>();
+        var random = new Random(7);
+
+        // A page holds 16 slots, the table starts with 4 slots and grows to many pages.
+        try (var set = OffHeapSet.allocate(Long.BYTES, 2, 0.5f, 256)) {
+            // Test
+            for (int i = 0; i < 50_000; i++) {
+                long key = random.nextInt(10_000) * 0x1_0000_0001L;
+                if (random.nextInt(3) > 0) {
+                    Assertions.assertEquals(expected.add(key), set.insert(key));
+                } else {
+                    Assertions.assertEquals(expected.remove(key), set.remove(key));
+                }
+            }
+
+            // Assert
+            Assertions.assertEquals(expected.size(), set.size());
+            Assertions.assertTrue(set.size() <= set.getCapacity() / 2);
+            Assertions.assertEquals(set.getCapacity() * 16, set.getSizeInBytes());
+            for (int key = 0; key < 10_000; key++) {
+                Assertions.assertEquals(expected.contains(key * 0x1_0000_0001L), set.contains(key * 0x1_0000_0001L));
+            }
+        }
+    }
+
+    @Test
+    public void testByteArrayKeys() throws IOException {
+        // Setup
+        try (var set = OffHeapSet.allocate(12, 4)) {
+            // Test
+            for (int i = 0; i < 1_000; i++) {
+                set.insert(("key-" + i).getBytes());
+            }
+            set.insert(new byte[0]);
+            set.insert(new byte[]{0});
+
+            // Assert
+            Assertions.assertEquals(1_002, set.size());
+            Assertions.assertTrue(set.contains("key-999".getBytes()));
+            Assertions.assertFalse(set.contains("key-1000".getBytes()));
+            // The zero padding of a key doesn't make it equal to a shorter one.
+            Assertions.assertTrue(set.contains(new byte[0]));
+            Assertions.assertFalse(set.contains(new byte[]{0, 0}));
+            Assertions.assertTrue(set.remove(new byte[]{0}));
+            Assertions.assertTrue(set.contains(new byte[0]));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> set.insert(new byte[17]));
+        }
+    }
+
+    @Test
+    public void testMappedFile(@TempDir Path directory) throws IOException {
+        // Setup
+        var file = directory.resolve("set");
+
+        // Test
+        var set = OffHeapSet.map(file, Long.BYTES, 4, 0.75f, 1024);
+        for (long key = 0; key < 20_000; key++) {
+            set.insert(key * 31);
+        }
+
+        // Assert
+        Assertions.assertEquals(20_000, set.size());
+        Assertions.assertTrue(set.contains(31L * 19_999));
+        Assertions.assertFalse(set.contains(32L));
+        Assertions.assertEquals(List.of(file), Files.list(file.getParent()).toList());
+        Assertions.assertEquals(set.getSizeInBytes(), Files.size(file));
+        set.close();
+        Assertions.assertFalse(Files.exists(file));
+        Assertions.assertThrows(IllegalStateException.class, () -> set.contains(31L));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OffHeapSet.allocate(0, 16));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OffHeapSet.allocate(8, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OffHeapSet.allocate(8, 16, 1.5f));
+    }
+}
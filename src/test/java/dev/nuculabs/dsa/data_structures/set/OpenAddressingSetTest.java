@@ -0,0 +1,104 @@
+package dev.nuculabs.dsa.data_structures.set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class OpenAddressingSetTest {
+    @Test
+    public void testInsertAndContains() {
+        // Setup
+        var set = OpenAddressingSet.<String>construct();
+
+        // Test
+        boolean inserted = set.insert("SomeElement");
+        boolean insertedAgain = set.insert("SomeElement");
+
+        // Assert
+        Assertions.assertTrue(inserted);
+        Assertions.assertFalse(insertedAgain);
+        Assertions.assertTrue(set.contains("SomeElement"));
+        Assertions.assertFalse(set.contains("AnotherElement"));
+        Assertions.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testContainsElementWithCollision() {
+        // Setup
+        var set = OpenAddressingSet.<TestPerson>construct();
+
+        // Test
+        set.insert(new TestPerson("Denis"));
+        set.insert(new TestPerson("Alex"));
+        set.insert(new TestPerson("Paul"));
+        set.remove(new TestPerson("Alex"));
+
+        // Assert
+        Assertions.assertTrue(set.contains(new TestPerson("Paul")));
+        Assertions.assertFalse(set.contains(new TestPerson("Alex")));
+        Assertions.assertEquals(2, set.size());
+        Assertions.assertTrue(set.getValues().containsAll(List.of(new TestPerson("Denis"), new TestPerson("Paul"))));
+    }
+
+    @Test
+    public void testResize() {
+        // Setup
+        var set = OpenAddressingSet.<Integer>of(4, 0.5f);
+        int initialCapacity = set.getCapacity();
+
+        // Test
+        for (int i = 0; i < 10_000; i++) {
+            set.insert(i * 1024);
+        }
+
+        // Assert
+        Assertions.assertEquals(10_000, set.size());
+        Assertions.assertTrue(set.getCapacity() > initialCapacity);
+        Assertions.assertTrue(set.size() <= set.getCapacity() * 0.5);
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertTrue(set.contains(i * 1024));
+            Assertions.assertFalse(set.contains(i * 1024 + 1));
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        // Setup
+        var set = OpenAddressingSet.<Integer>construct();
+        var expected = new HashSet<Integer>();
+        var random = new Random(7);
+
+        // Test
+        for (int i = 0; i < 100_000; i++) {
+            int element = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(element), set.insert(element));
+            } else {
+                Assertions.assertEquals(expected.remove(element), set.remove(element));
+            }
+        }
+
+        // Assert
+        Assertions.assertEquals(expected.size(), set.size());
+        Assertions.assertEquals(expected, new HashSet<>(set.getValues()));
+        for (int element = 0; element < 5_000; element++) {
+            Assertions.assertEquals(expected.contains(element), set.contains(element));
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OpenAddressingSet.of(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OpenAddressingSet.of(16, 1.0f));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OpenAddressingSet.<String>construct().insert(null));
+    }
+
+    @Test
+    public void testGrownCapacityIsBounded() {
+        Assertions.assertEquals(1 << 30, OpenAddressingSet.grownCapacity(1 << 29));
+        Assertions.assertThrows(IllegalStateException.class, () -> OpenAddressingSet.grownCapacity(1 << 30));
+    }
+}
@@ -3,8 +3,14 @@ package dev.nuculabs.dsa.data_structures.set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 class TestPerson {
     private final String name;
@@ -113,4 +119,189 @@ public class SetTest {
         Assertions.assertEquals(List.of(new TestPerson("Denis"), new TestPerson("Alex"), new TestPerson("Paul")), set.getValues());
 
     }
+
+    private static Set<Integer> rangeSet(int capacity, int from, int to) {
+        var set = Set.<Integer>of(capacity);
+        for (int i = from; i < to; i++) {
+            set.insert(i);
+        }
+        return set;
+    }
+
+    @Test
+    public void testRemoveAndSize() {
+        // Setup
+        var set = Set.<TestPerson>construct();
+        set.insert(new TestPerson("Denis"));
+        set.insert(new TestPerson("Alex"));
+        set.insert(new TestPerson("Paul"));
+
+        // Test
+        boolean removed = set.remove(new TestPerson("Alex"));
+        boolean removedAgain = set.remove(new TestPerson("Alex"));
+        set.remove(new TestPerson("Denis"));
+
+        // Assert
+        Assertions.assertTrue(removed);
+        Assertions.assertFalse(removedAgain);
+        Assertions.assertEquals(1, set.size());
+        Assertions.assertEquals(List.of(new TestPerson("Paul")), set.getValues());
+    }
+
+    @Test
+    public void testRemoveManyThenInsertAndIterate() {
+        // Setup
+        var set = Set.<Integer>of(64);
+        var expected = new HashSet<Integer>();
+        for (int i = 0; i < 1_000; i++) {
+            set.insert(i);
+            expected.add(i);
+        }
+
+        // Test: empty buckets in the middle, at the end and everywhere in between.
+        var removed = Set.<Integer>of(64);
+        for (int i = 0; i < 1_000; i += 3) {
+            removed.insert(i);
+            expected.remove(i);
+        }
+        set.removeAll(removed);
+        for (int i = 999; i >= 500; i--) {
+            set.remove(i);
+            expected.remove(i);
+        }
+        set.insert(2_000);
+        expected.add(2_000);
+
+        // Assert
+        Assertions.assertEquals(expected.size(), set.size());
+        Assertions.assertEquals(expected, new HashSet<>(set.getValues()));
+        var iterated = new ArrayList<Integer>();
+        set.forEach(iterated::add);
+        Assertions.assertEquals(set.size(), iterated.size());
+        Assertions.assertEquals(expected, new HashSet<>(iterated));
+        Assertions.assertEquals(expected.size(), (int) set.stream().count());
+    }
+
+    @Test
+    public void testSetAlgebra() {
+        // Setup
+        var small = rangeSet(64, 0, 300);
+        var large = rangeSet(1024, 200, 5_000);
+
+        // Test
+        var union = small.union(large);
+        var intersection = small.intersect(large);
+        var difference = small.difference(large);
+        var reverseDifference = large.difference(small);
+
+        // Assert
+        Assertions.assertEquals(5_000, union.size());
+        Assertions.assertEquals(new HashSet<>(rangeSet(16, 0, 5_000).getValues()), new HashSet<>(union.getValues()));
+        Assertions.assertEquals(new HashSet<>(rangeSet(16, 200, 300).getValues()), new HashSet<>(intersection.getValues()));
+        Assertions.assertEquals(new HashSet<>(rangeSet(16, 0, 200).getValues()), new HashSet<>(difference.getValues()));
+        Assertions.assertEquals(4_700, reverseDifference.size());
+        Assertions.assertEquals(300, small.size());
+        Assertions.assertEquals(4_800, large.size());
+    }
+
+    @Test
+    public void testParallelSetAlgebra() {
+        // Setup
+        var pool = new ForkJoinPool(4);
+        var small = rangeSet(64, 0, 3_000);
+        var large = rangeSet(1024, 2_000, 50_000);
+
+        // Test & Assert
+        Assertions.assertEquals(new HashSet<>(small.union(large).getValues()), new HashSet<>(small.union(pool, large).getValues()));
+        Assertions.assertEquals(new HashSet<>(small.intersect(large).getValues()), new HashSet<>(large.intersect(pool, small).getValues()));
+        Assertions.assertEquals(new HashSet<>(large.difference(small).getValues()), new HashSet<>(large.difference(pool, small).getValues()));
+        Assertions.assertEquals(50_000, small.union(pool, large).size());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testInPlaceSetAlgebra() {
+        // Setup
+        var set = rangeSet(128, 0, 1_000);
+
+        // Test & Assert
+        Assertions.assertTrue(set.addAll(rangeSet(16, 900, 1_100)));
+        Assertions.assertFalse(set.addAll(rangeSet(16, 0, 10)));
+        Assertions.assertEquals(1_100, set.size());
+
+        Assertions.assertTrue(set.retainAll(rangeSet(16, 100, 1_050)));
+        Assertions.assertEquals(new HashSet<>(rangeSet(16, 100, 1_050).getValues()), new HashSet<>(set.getValues()));
+        Assertions.assertFalse(set.retainAll(rangeSet(4096, 0, 10_000)));
+        Assertions.assertEquals(950, set.size());
+
+        Assertions.assertTrue(set.removeAll(rangeSet(16, 0, 200)));
+        Assertions.assertTrue(set.removeAll(rangeSet(16, 1_000, 20_000)));
+        Assertions.assertEquals(new HashSet<>(rangeSet(16, 200, 1_000).getValues()), new HashSet<>(set.getValues()));
+        Assertions.assertEquals(800, set.size());
+        Assertions.assertTrue(set.contains(500));
+        Assertions.assertFalse(set.contains(1_000));
+    }
+
+    @Test
+    public void testIterator() {
+        // Setup
+        var set = Set.<TestPerson>construct();
+        set.insert(new TestPerson("Denis"));
+        set.insert(new TestPerson("Alex"));
+        set.insert(new TestPerson("Paul"));
+
+        // Test
+        List<TestPerson> iterated = new ArrayList<>();
+        for (TestPerson person : set) {
+            iterated.add(person);
+        }
+        var iterator = Set.<String>construct().iterator();
+
+        // Assert
+        Assertions.assertEquals(set.getValues(), iterated);
+        Assertions.assertFalse(iterator.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testSpliterator() {
+        // Setup
+        var set = rangeSet(4096, 0, 100_000);
+
+        // Test
+        var spliterator = set.spliterator();
+        long size = spliterator.getExactSizeIfKnown();
+        var split = spliterator.trySplit();
+
+        // Assert
+        Assertions.assertEquals(100_000, size);
+        Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+        Assertions.assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        Assertions.assertEquals(100_000, spliterator.estimateSize() + split.estimateSize());
+        Assertions.assertEquals(50_000, split.estimateSize(), 1_000);
+        Assertions.assertEquals(100_000, set.stream().count());
+        Assertions.assertEquals(set.getValues(), set.stream().collect(Collectors.toList()));
+        Assertions.assertEquals(new HashSet<>(set.getValues()), set.stream().parallel().collect(Collectors.toSet()));
+        Assertions.assertEquals(99_999L * 100_000 / 2, set.stream().parallel().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    public void testSpliteratorTryAdvance() {
+        // Setup
+        var set = rangeSet(4, 0, 10);
+        var spliterator = set.spliterator();
+        List<Integer> elements = new ArrayList<>();
+
+        // Test
+        spliterator.tryAdvance(elements::add);
+        spliterator.tryAdvance(elements::add);
+        long remaining = spliterator.getExactSizeIfKnown();
+        spliterator.forEachRemaining(elements::add);
+
+        // Assert
+        Assertions.assertEquals(8, remaining);
+        Assertions.assertEquals(set.getValues(), elements);
+        Assertions.assertFalse(spliterator.tryAdvance(elements::add));
+        Assertions.assertEquals(0, spliterator.estimateSize());
+    }
 }
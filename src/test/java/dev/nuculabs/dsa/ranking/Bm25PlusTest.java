@@ -2,11 +2,20 @@ package dev.nuculabs.dsa.ranking;
 
 import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
 import dev.nuculabs.dsa.ranking.bm25.Document;
+import dev.nuculabs.dsa.ranking.bm25.DocumentFile;
+import dev.nuculabs.dsa.ranking.bm25.ShardedBm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.TermQuery;
 import utils.Pair;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Bm25PlusTest {
     @Test
@@ -78,13 +87,304 @@ public class Bm25PlusTest {
         // Then
         Assertions.assertEquals(
                 new ArrayList<>(List.of(
-                        new Pair<>(1.5977607472650388, document3),
-                        new Pair<>(0.8361444686814765, document2),
-                        new Pair<>(0.8296222299960145, document1),
-                        new Pair<>(0.704549447544239, document4)
+                        new Pair<>(1.8213544281744154, document3),
+                        new Pair<>(1.059738149590853, document2),
+                        new Pair<>(1.0490115968416234, document1),
+                        new Pair<>(0.792006563170049, document4)
                 )),
                 bm25Plus.termsQuery("linked", "list", "complexity")
         );
     }
-}
 
+    @Test
+    public void test_termsQuery_doesNotModifyIndex() {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+
+        Document document1 = new Document(1, "Ana are mere");
+        Document document2 = new Document(2, "Ana Ana Ana Ana Ana Ana Ana Ana");
+        bm25Plus.indexAll(document1, document2);
+
+        // When
+        var results = bm25Plus.termsQuery("mere", "ana");
+
+        // Then
+        Assertions.assertEquals(results, bm25Plus.termsQuery("mere", "ana"));
+        Assertions.assertEquals(
+                new ArrayList<>(List.of(
+                        new Pair<>(0.8548118968145402, document1)
+                )),
+                bm25Plus.termQuery("mere")
+        );
+    }
+
+    @Test
+    public void test_topK() {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+
+        Document document1 = new Document(1, "A linked list is a fundamental data structure which consists of Nodes that are connected to each other.");
+        Document document2 = new Document(2, "The Linked List data structure permits the storage of data in an efficient manner.");
+        Document document3 = new Document(3, "The space and time complexity of the linked list operations depends on the implementation.");
+        Document document4 = new Document(4, "A set is a data structure which holds unique elements.");
+        bm25Plus.indexAll(document1, document2, document3, document4);
+
+        // Then
+        Assertions.assertEquals(
+                bm25Plus.termsQuery("linked", "list", "complexity").subList(0, 2),
+                bm25Plus.topK(2, "linked", "list", "complexity")
+        );
+        Assertions.assertEquals(
+                bm25Plus.termsQuery("data", "structure", "set"),
+                bm25Plus.topK(10, "data", "structure", "set")
+        );
+        Assertions.assertEquals(
+                bm25Plus.termQuery("Linked").subList(0, 1),
+                bm25Plus.topK(1, "Linked")
+        );
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.topK(3, "batman"));
+    }
+
+    @Test
+    public void test_topK_invalidK() {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+
+        // Then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bm25Plus.topK(0, "ana"));
+    }
+
+    @Test
+    public void test_bulkIndex() {
+        // Given
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            documents.add(new Document(i % 1500, "document " + i + " about linked lists" + " list".repeat(i % 7) + (i % 3 == 0 ? " complexity" : "")));
+        }
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents.toArray(Document[]::new));
+
+        // When
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.index(documents.get(10));
+        bm25Plus.bulkIndex(new ForkJoinPool(4), documents.subList(0, 1000).toArray(Document[]::new));
+        bm25Plus.bulkIndex(documents.subList(1000, 2000).toArray(Document[]::new));
+
+        // Then
+        Assertions.assertEquals(1500, bm25Plus.getIndexSize());
+        Assertions.assertEquals(
+                expected.termsQuery("linked", "list", "complexity", "1499"),
+                bm25Plus.termsQuery("linked", "list", "complexity", "1499")
+        );
+        Assertions.assertEquals(expected.topK(20, "list", "complexity"), bm25Plus.topK(20, "list", "complexity"));
+    }
+
+    @Test
+    public void test_termsQuery_afterIndexingMoreDocuments() {
+        // Given
+        Document document1 = new Document(1, "Ana are mere");
+        Document document2 = new Document(2, "Ana Ana Ana Ana Ana Ana Ana Ana");
+        Document document3 = new Document(3, "Ana are pere si mere");
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(document1, document2, document3);
+
+        // When
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.indexAll(document1, document2);
+        bm25Plus.termsQuery("ana", "mere");
+        bm25Plus.topK(1, "ana", "mere");
+        bm25Plus.index(document3);
+
+        // Then
+        Assertions.assertEquals(expected.termsQuery("ana", "mere"), bm25Plus.termsQuery("ana", "mere"));
+        Assertions.assertEquals(expected.topK(2, "ana", "mere"), bm25Plus.topK(2, "ana", "mere"));
+    }
+
+    @Test
+    public void test_delete_and_update() {
+        // Given
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            documents.add(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 7) + (i % 3 == 0 ? " complexity" : "")));
+        }
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.indexAll(documents.toArray(Document[]::new));
+
+        // When
+        List<Document> expectedDocuments = new ArrayList<>();
+        for (Document document : documents) {
+            if (document.documentId() % 4 == 0) {
+                Assertions.assertTrue(bm25Plus.delete(document.documentId()));
+            } else if (document.documentId() % 4 != 1) {
+                expectedDocuments.add(document);
+            }
+        }
+        for (Document document : documents) {
+            if (document.documentId() % 4 == 1) {
+                Document updated = new Document(document.documentId(), "updated list " + document.documentId());
+                bm25Plus.update(updated);
+                expectedDocuments.add(updated);
+            }
+        }
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(expectedDocuments.toArray(Document[]::new));
+
+        // Then
+        Assertions.assertFalse(bm25Plus.delete(0));
+        Assertions.assertEquals(750, bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.termQuery("list"), bm25Plus.termQuery("list"));
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity"), bm25Plus.termsQuery("linked", "list", "complexity"));
+        Assertions.assertEquals(expected.topK(20, "list", "updated"), bm25Plus.topK(20, "list", "updated"));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.termQuery("4"));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.topK(5, "list", "4"));
+
+        bm25Plus.compact();
+        Assertions.assertEquals(750, bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity"), bm25Plus.termsQuery("linked", "list", "complexity"));
+        Assertions.assertEquals(expected.topK(20, "list", "updated"), bm25Plus.topK(20, "list", "updated"));
+    }
+
+    @Test
+    public void test_queryTermsAreNormalizedLikeTheText() {
+        // Given: a default locale which lowercases "I" to a dotless "ı".
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            Document document = new Document(1, "Hello, world of C++ INFO");
+            Bm25Plus bm25Plus = new Bm25Plus();
+            Bm25Plus cachedBm25Plus = new Bm25Plus(4);
+            ShardedBm25Plus shardedBm25Plus = new ShardedBm25Plus(2);
+            bm25Plus.index(document);
+            cachedBm25Plus.index(document);
+            shardedBm25Plus.index(document);
+
+            // Then
+            for (String term : List.of("hello,", "Hello", "c++", "INFO", "info")) {
+                Assertions.assertEquals(List.of(document), documents(bm25Plus.termQuery(term)), term);
+                Assertions.assertEquals(List.of(document), documents(cachedBm25Plus.termQuery(term)), term);
+                Assertions.assertEquals(List.of(document), documents(shardedBm25Plus.termQuery(term)), term);
+                Assertions.assertEquals(List.of(document), documents(bm25Plus.search(new TermQuery(term), 10)), term);
+            }
+            Assertions.assertEquals(bm25Plus.termsQuery("hello", "info"), bm25Plus.termsQuery("HELLO,", "INFO"));
+            Assertions.assertEquals(bm25Plus.termsQuery("hello", "info"), shardedBm25Plus.termsQuery("HELLO,", "INFO"));
+            Assertions.assertEquals(bm25Plus.termsQuery("hello", "info"), cachedBm25Plus.termsQuery("HELLO,", "INFO"));
+            long hits = cachedBm25Plus.getResultCache().orElseThrow().getHitCount();
+            Assertions.assertEquals(bm25Plus.termsQuery("hello", "info"), cachedBm25Plus.termsQuery("hello", "info"));
+            Assertions.assertEquals(hits + 1, cachedBm25Plus.getResultCache().orElseThrow().getHitCount());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static List<Document> documents(List<Pair<Double, Document>> results) {
+        return results.stream().map(Pair::second).toList();
+    }
+
+    @Test
+    public void test_resultCache() {
+        // Given
+        Bm25Plus expected = new Bm25Plus();
+        Bm25Plus bm25Plus = new Bm25Plus(2);
+        for (int i = 0; i < 100; i++) {
+            Document document = new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 3));
+            expected.index(document);
+            bm25Plus.index(document);
+        }
+        var cache = bm25Plus.getResultCache().orElseThrow();
+
+        // When
+        var first = bm25Plus.termsQuery("Linked", "list");
+        var second = bm25Plus.termsQuery("linked", "LIST");
+        bm25Plus.topK(5, "linked", "list");
+        bm25Plus.termQuery("list");
+
+        // Then: the first terms query was evicted by the two queries after it.
+        Assertions.assertEquals(expected.termsQuery("linked", "list"), first);
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        // The cached results are copied out, so the caller may modify them like uncached results.
+        first.clear();
+        second.sort(Comparator.comparing(result -> result.second().documentId()));
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(3, cache.getMissCount());
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNotSame(first, bm25Plus.termsQuery("linked", "list"));
+        Assertions.assertTrue(expected.getResultCache().isEmpty());
+
+        // Indexing a document drops the cached results.
+        Document document = new Document(100, "list list list");
+        expected.index(document);
+        bm25Plus.index(document);
+        Assertions.assertEquals(expected.termQuery("list"), bm25Plus.termQuery("list"));
+        Assertions.assertEquals(5, cache.getMissCount());
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Bm25Plus(0));
+    }
+
+    @Test
+    public void test_ingest_iteratorAndStream() {
+        // Given
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            documents.add(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 5)));
+        }
+        documents.add(new Document(3, "a duplicate which is ignored"));
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents.toArray(Document[]::new));
+
+        // When
+        Bm25Plus fromIterator = new Bm25Plus();
+        long iteratorCount = fromIterator.ingest(documents.iterator(), 16);
+        Bm25Plus fromStream = new Bm25Plus();
+        long streamCount = fromStream.ingest(documents.stream(), 100);
+
+        // Then
+        Assertions.assertEquals(251, iteratorCount);
+        Assertions.assertEquals(251, streamCount);
+        Assertions.assertEquals(250, fromIterator.getIndexSize());
+        Assertions.assertEquals(expected.termsQuery("linked", "list"), fromIterator.termsQuery("linked", "list"));
+        Assertions.assertEquals(expected.topK(10, "list", "3"), fromStream.topK(10, "list", "3"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fromStream.ingest(documents.iterator(), 0));
+    }
+
+    @Test
+    public void test_ingest_files(@TempDir Path directory) throws IOException {
+        // Given
+        List<Document> documents = new ArrayList<>();
+        StringBuilder jsonl = new StringBuilder();
+        StringBuilder tsv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            String text = "document " + i + " about \\\"linked\\\" lists" + " list".repeat(i % 5) + (i % 7 == 0 ? " ănă" : "");
+            documents.add(new Document(i, text.replace("\\", "")));
+            jsonl.append("{\"id\": ").append(i).append(", \"tags\": [\"a\", {\"b\": 1}], \"text\": \"").append(text).append("\"}\n");
+            tsv.append(i).append('\t').append(text.replace("\\", "")).append(i % 10 == 0 ? "\r\n\n" : "\n");
+        }
+        Files.writeString(directory.resolve("documents.jsonl"), jsonl);
+        Files.writeString(directory.resolve("documents.tsv"), tsv);
+        Files.writeString(directory.resolve("invalid.jsonl"), "{\"id\": 1, \"text\": \"a\"}\n{\"id\": 2}\n");
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents.toArray(Document[]::new));
+
+        // When
+        try (DocumentFile jsonlFile = DocumentFile.jsonl(directory.resolve("documents.jsonl"));
+             DocumentFile tsvFile = DocumentFile.tsv(directory.resolve("documents.tsv"));
+             DocumentFile invalidFile = DocumentFile.jsonl(directory.resolve("invalid.jsonl"))) {
+            Bm25Plus fromJsonl = new Bm25Plus();
+            long jsonlCount = fromJsonl.ingest(jsonlFile, 32, false);
+            Bm25Plus fromTsv = new Bm25Plus();
+            long tsvCount = fromTsv.ingest(tsvFile, 1000, true);
+
+            // Then: the documents without their text are read back from the file.
+            Assertions.assertEquals(300, jsonlCount);
+            Assertions.assertEquals(300, tsvCount);
+            Assertions.assertEquals(expected.termsQuery("linked", "ănă"), fromJsonl.termsQuery("linked", "ănă"));
+            Assertions.assertEquals(expected.topK(10, "list", "7"), fromTsv.topK(10, "list", "7"));
+            Assertions.assertEquals(documents, tsvFile.documents().toList());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new Bm25Plus().ingest(invalidFile, 10, true));
+
+            // Then: the documents can't be read back once the file is closed.
+            jsonlFile.close();
+            Assertions.assertThrows(UncheckedIOException.class, () -> fromJsonl.termsQuery("linked"));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Bm25Segment;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+import utils.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Bm25SegmentTest {
+    @Test
+    public void test_writeAndOpenSegment(@TempDir Path directory) throws IOException {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+        for (int i = 0; i < 500; i++) {
+            bm25Plus.index(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 5) + (i % 3 == 0 ? " complexity" : "")));
+        }
+        bm25Plus.index(new Document(1000, "Ana are mere, ănă"));
+
+        // When
+        bm25Plus.writeSegment(directory);
+
+        // Then
+        try (Bm25Segment segment = Bm25Segment.open(directory)) {
+            Assertions.assertEquals(bm25Plus.getIndexSize(), segment.getIndexSize());
+            Assertions.assertEquals(bm25Plus.termQuery("List"), segment.termQuery("List"));
+            Assertions.assertEquals(bm25Plus.termQuery("ănă"), segment.termQuery("ănă"));
+            Assertions.assertEquals(bm25Plus.termsQuery("linked", "list", "complexity"), segment.termsQuery("linked", "list", "complexity"));
+            Assertions.assertEquals(bm25Plus.topK(10, "list", "complexity", "42"), segment.topK(10, "list", "complexity", "42"));
+            Assertions.assertEquals(Collections.emptyList(), segment.termQuery("batman"));
+        }
+    }
+
+    @Test
+    public void test_writeSegmentWithDeletedDocuments(@TempDir Path directory) throws IOException {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+        for (int i = 0; i < 300; i++) {
+            bm25Plus.index(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 5)));
+        }
+        for (int i = 0; i < 300; i += 2) {
+            bm25Plus.delete(i);
+        }
+
+        // When
+        bm25Plus.writeSegment(directory);
+
+        // Then
+        try (Bm25Segment segment = Bm25Segment.open(directory)) {
+            Assertions.assertEquals(150, segment.getIndexSize());
+            Assertions.assertEquals(bm25Plus.termsQuery("linked", "list"), segment.termsQuery("linked", "list"));
+            Assertions.assertEquals(Collections.emptyList(), segment.termQuery("42"));
+        }
+    }
+
+    @Test
+    public void test_rewriteSegment(@TempDir Path directory) throws IOException {
+        // Given
+        Bm25Plus first = new Bm25Plus();
+        first.indexAll(new Document(1, "Ana are mere"), new Document(2, "Ana are pere"));
+        Bm25Plus second = new Bm25Plus();
+        second.indexAll(new Document(3, "linked lists"), new Document(4, "Ana"));
+        first.writeSegment(directory);
+
+        // When
+        second.writeSegment(directory);
+
+        // Then: the segment is replaced, only CURRENT and the new generation are left behind.
+        try (Bm25Segment segment = Bm25Segment.open(directory); var files = Files.list(directory)) {
+            Assertions.assertEquals(second.termQuery("ana"), segment.termQuery("ana"));
+            Assertions.assertEquals(Collections.emptyList(), segment.termQuery("mere"));
+            Assertions.assertEquals(2L, files.count());
+            Assertions.assertTrue(Files.isDirectory(currentGeneration(directory)));
+        }
+    }
+
+    @Test
+    public void test_interruptedWriteKeepsOldSegment(@TempDir Path directory) throws IOException {
+        // Given: a write which crashed after filling part of its generation, before replacing CURRENT.
+        Bm25Plus first = new Bm25Plus();
+        first.indexAll(new Document(1, "Ana are mere"), new Document(2, "Ana are pere"));
+        first.writeSegment(directory);
+        Path interrupted = Files.createDirectory(directory.resolve("segment-interrupted"));
+        Files.copy(currentGeneration(directory).resolve("terms"), interrupted.resolve("terms"));
+        Files.writeString(interrupted.resolve("postings"), "half written");
+
+        // Then: the old segment still opens.
+        try (Bm25Segment segment = Bm25Segment.open(directory)) {
+            Assertions.assertEquals(first.termQuery("ana"), segment.termQuery("ana"));
+        }
+
+        // When: the next write cleans the leftovers up.
+        Bm25Plus second = new Bm25Plus();
+        second.index(new Document(3, "linked lists"));
+        second.writeSegment(directory);
+
+        // Then
+        try (Bm25Segment segment = Bm25Segment.open(directory); var files = Files.list(directory)) {
+            Assertions.assertEquals(second.termQuery("lists"), segment.termQuery("lists"));
+            Assertions.assertEquals(2L, files.count());
+            Assertions.assertTrue(Files.notExists(interrupted));
+        }
+    }
+
+    @Test
+    public void test_openSegmentOfMixedWrites(@TempDir Path directory) throws IOException {
+        // Given: a segment whose postings file was replaced by the one of another write.
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.indexAll(new Document(1, "Ana are mere"), new Document(2, "Ana are pere"));
+        var segmentDirectory = directory.resolve("segment");
+        var otherDirectory = directory.resolve("other");
+        bm25Plus.writeSegment(segmentDirectory);
+        bm25Plus.writeSegment(otherDirectory);
+        Files.copy(currentGeneration(otherDirectory).resolve("postings"), currentGeneration(segmentDirectory).resolve("postings"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // Then
+        Assertions.assertThrows(IOException.class, () -> Bm25Segment.open(segmentDirectory));
+    }
+
+    @Test
+    public void test_closeSegment(@TempDir Path directory) throws IOException {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.index(new Document(1, "Ana are mere"));
+        bm25Plus.writeSegment(directory);
+        Bm25Segment segment = Bm25Segment.open(directory);
+
+        // When
+        segment.close();
+        segment.close();
+
+        // Then
+        Assertions.assertThrows(IllegalStateException.class, () -> segment.termQuery("ana"));
+    }
+
+    @Test
+    public void test_closeSegmentWhileQuerying(@TempDir Path directory) throws IOException, InterruptedException {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus();
+        for (int i = 0; i < 2000; i++) {
+            bm25Plus.index(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 5)));
+        }
+        bm25Plus.writeSegment(directory);
+        List<Pair<Double, Document>> expected = bm25Plus.topK(10, "linked", "list");
+        Bm25Segment segment = Bm25Segment.open(directory);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger queries = new AtomicInteger();
+
+        // When: the segment is closed while the readers query it.
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (true) {
+                        Assertions.assertEquals(expected, segment.topK(10, "linked", "list"));
+                        queries.incrementAndGet();
+                    }
+                } catch (IllegalStateException closed) {
+                    // The segment was closed.
+                } catch (Throwable throwable) {
+                    failure.compareAndSet(null, throwable);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        while (queries.get() < 100) {
+            Thread.onSpinWait();
+        }
+        segment.close();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // Then: the running queries finished on the mapped files and the later ones were rejected.
+        Assertions.assertNull(failure.get());
+        Assertions.assertThrows(IllegalStateException.class, () -> segment.termQuery("list"));
+    }
+
+    @Test
+    public void test_openInvalidSegment(@TempDir Path directory) throws IOException {
+        // Given
+        Path generation = Files.createDirectory(directory.resolve("segment-0"));
+        for (String file : new String[]{"terms", "postings", "lengths", "documents"}) {
+            Files.writeString(generation.resolve(file), "not a segment");
+        }
+        Files.writeString(directory.resolve("CURRENT"), "segment-0");
+
+        // Then
+        Assertions.assertThrows(IOException.class, () -> Bm25Segment.open(directory));
+        Files.writeString(directory.resolve("CURRENT"), "../segment-0");
+        Assertions.assertThrows(IOException.class, () -> Bm25Segment.open(directory));
+        Files.delete(directory.resolve("CURRENT"));
+        Assertions.assertThrows(IOException.class, () -> Bm25Segment.open(directory));
+    }
+
+    private static Path currentGeneration(Path directory) throws IOException {
+        return directory.resolve(Files.readString(directory.resolve("CURRENT")));
+    }
+}
@@ -0,0 +1,154 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.ConcurrentBm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentBm25PlusTest {
+    private static List<Document> documents(int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 7) + (i % 3 == 0 ? " complexity" : "")));
+        }
+        return documents;
+    }
+
+    @Test
+    public void test_queries() {
+        // Given
+        Document[] documents = documents(1000).toArray(Document[]::new);
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents);
+
+        // When
+        ConcurrentBm25Plus bm25Plus = new ConcurrentBm25Plus();
+        bm25Plus.indexAll(documents);
+        bm25Plus.index(documents[0]);
+
+        // Then: the default interval batches the changes, the refresh publishes the rest.
+        Assertions.assertEquals(0, bm25Plus.getIndexSize());
+        bm25Plus.refresh();
+        Assertions.assertEquals(1000, bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.termQuery("list"), bm25Plus.termQuery("list"));
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity", "999"), bm25Plus.termsQuery("linked", "list", "complexity", "999"));
+        Assertions.assertEquals(expected.topK(20, "list", "complexity"), bm25Plus.topK(20, "list", "complexity"));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.termsQuery("batman"));
+    }
+
+    @Test
+    public void test_refresh() {
+        // Given
+        ConcurrentBm25Plus bm25Plus = new ConcurrentBm25Plus(10);
+        List<Document> documents = documents(25);
+
+        // When
+        bm25Plus.indexAll(documents.subList(0, 15).toArray(Document[]::new));
+        ConcurrentBm25Plus.Snapshot snapshot = bm25Plus.getSnapshot();
+        bm25Plus.indexAll(documents.subList(15, 25).toArray(Document[]::new));
+
+        // Then
+        Assertions.assertEquals(20, bm25Plus.getIndexSize());
+        bm25Plus.refresh();
+        Assertions.assertEquals(25, bm25Plus.getIndexSize());
+        Assertions.assertEquals(3, bm25Plus.getSnapshot().getVersion());
+
+        // The old snapshot doesn't see the documents indexed after it was published.
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents.subList(0, 10).toArray(Document[]::new));
+        Assertions.assertEquals(10, snapshot.getIndexSize());
+        Assertions.assertEquals(expected.termsQuery("list", "complexity"), snapshot.termsQuery("list", "complexity"));
+        Assertions.assertEquals(Collections.emptyList(), snapshot.termQuery("24"));
+    }
+
+    @Test
+    public void test_refresh_invalidInterval() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConcurrentBm25Plus(0));
+    }
+
+    @Test
+    public void test_queriesWhileIndexing() throws InterruptedException {
+        // Given
+        ConcurrentBm25Plus bm25Plus = new ConcurrentBm25Plus(7);
+        List<Document> documents = documents(5000);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // When
+        Thread writer = new Thread(() -> documents.forEach(bm25Plus::index));
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (writer.isAlive()) {
+                        ConcurrentBm25Plus.Snapshot snapshot = bm25Plus.getSnapshot();
+                        var results = snapshot.termsQuery("list", "complexity");
+                        var top = snapshot.topK(10, "list", "complexity");
+                        Assertions.assertEquals(results.subList(0, Math.min(10, results.size())), top);
+                        Assertions.assertTrue(results.size() <= snapshot.getIndexSize());
+                    }
+                } catch (Throwable throwable) {
+                    failure.compareAndSet(null, throwable);
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        bm25Plus.refresh();
+
+        // Then
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(5000, bm25Plus.getIndexSize());
+    }
+
+    @Test
+    public void test_delete_update_and_compactAsync() {
+        // Given
+        List<Document> documents = documents(1000);
+        ConcurrentBm25Plus bm25Plus = new ConcurrentBm25Plus(50);
+        bm25Plus.indexAll(documents.toArray(Document[]::new));
+        ConcurrentBm25Plus.Snapshot before = bm25Plus.getSnapshot();
+
+        // When
+        List<Document> expectedDocuments = new ArrayList<>();
+        for (Document document : documents) {
+            if (document.documentId() % 3 == 0) {
+                bm25Plus.delete(document.documentId());
+            } else if (document.documentId() % 3 == 1) {
+                expectedDocuments.add(document);
+            }
+        }
+        for (Document document : documents) {
+            if (document.documentId() % 3 == 2) {
+                Document updated = new Document(document.documentId(), "updated list " + document.documentId());
+                bm25Plus.update(updated);
+                expectedDocuments.add(updated);
+            }
+        }
+        bm25Plus.refresh();
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(expectedDocuments.toArray(Document[]::new));
+
+        // Then
+        Assertions.assertEquals(expected.getIndexSize(), bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity"), bm25Plus.termsQuery("linked", "list", "complexity"));
+        Assertions.assertEquals(expected.topK(20, "list", "updated"), bm25Plus.topK(20, "list", "updated"));
+
+        bm25Plus.compactAsync().join();
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity"), bm25Plus.termsQuery("linked", "list", "complexity"));
+        Assertions.assertEquals(expected.topK(20, "list", "updated"), bm25Plus.topK(20, "list", "updated"));
+
+        // The snapshot published before the deletions still sees all the documents.
+        Assertions.assertEquals(1000, before.getIndexSize());
+        Assertions.assertEquals(1000, before.termQuery("lists").size());
+    }
+}
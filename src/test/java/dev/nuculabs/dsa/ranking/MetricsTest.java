@@ -0,0 +1,103 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+import dev.nuculabs.dsa.ranking.bm25.Query;
+import dev.nuculabs.dsa.ranking.bm25.metrics.LatencyHistogram;
+import dev.nuculabs.dsa.ranking.bm25.metrics.MetricsListener;
+import dev.nuculabs.dsa.ranking.bm25.metrics.MetricsRecorder;
+import dev.nuculabs.dsa.ranking.bm25.metrics.QueryMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MetricsTest {
+    @Test
+    public void test_recorder() {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus(8);
+        MetricsRecorder recorder = new MetricsRecorder();
+        List<QueryMetrics> queries = new ArrayList<>();
+        bm25Plus.setMetricsListener(MetricsListener.of(recorder, new MetricsListener() {
+            @Override
+            public void onQuery(QueryMetrics metrics) {
+                queries.add(metrics);
+            }
+        }));
+
+        // When
+        bm25Plus.index(new Document(0, "linked lists are lists"));
+        bm25Plus.bulkIndex(new Document(1, "sorted linked lists"), new Document(2, "skip lists"), new Document(3, "trees"));
+        bm25Plus.termQuery("lists");
+        bm25Plus.termQuery("lists");
+        bm25Plus.topK(2, "linked", "lists");
+        bm25Plus.search(Query.phrase("linked", "lists"), 10);
+
+        // Then
+        Assertions.assertEquals(4, recorder.getDocumentsIndexed());
+        Assertions.assertEquals(10, recorder.getTokensIndexed());
+        Assertions.assertEquals(2, recorder.getIndexLatency().getCount());
+        Assertions.assertEquals(1, recorder.getCacheHits());
+        Assertions.assertEquals(2, recorder.getCacheMisses());
+        Assertions.assertEquals(3, recorder.getQueries());
+        Assertions.assertEquals(3, recorder.getQueryLatency().getCount());
+
+        Assertions.assertEquals(QueryMetrics.Type.TERM, queries.get(0).type());
+        Assertions.assertEquals(3, queries.get(0).postingsScanned());
+        Assertions.assertEquals(3, queries.get(0).candidatesScored());
+        Assertions.assertEquals(3, queries.get(0).results());
+        Assertions.assertEquals(QueryMetrics.Type.TOP_K, queries.get(1).type());
+        Assertions.assertEquals(2, queries.get(1).results());
+        Assertions.assertEquals(QueryMetrics.Type.SEARCH, queries.get(2).type());
+        Assertions.assertEquals(2, queries.get(2).terms());
+        Assertions.assertEquals(2, queries.get(2).candidatesScored());
+        for (QueryMetrics metrics : queries) {
+            Assertions.assertTrue(metrics.sortNanos() <= metrics.totalNanos());
+        }
+    }
+
+    @Test
+    public void test_withoutListener() {
+        // Given
+        Bm25Plus bm25Plus = new Bm25Plus(8);
+        MetricsRecorder recorder = new MetricsRecorder();
+        bm25Plus.setMetricsListener(recorder);
+
+        // When
+        bm25Plus.index(new Document(0, "linked lists"));
+        bm25Plus.setMetricsListener(null);
+        bm25Plus.index(new Document(1, "skip lists"));
+        bm25Plus.termQuery("lists");
+
+        // Then
+        Assertions.assertEquals(1, recorder.getDocumentsIndexed());
+        Assertions.assertEquals(0, recorder.getQueries());
+        Assertions.assertEquals(0, recorder.getCacheMisses());
+    }
+
+    @Test
+    public void test_latencyHistogram() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        // Then
+        Assertions.assertEquals(100_000, histogram.getCount());
+        Assertions.assertEquals(100_000, histogram.getMax());
+        Assertions.assertEquals(50_000.5, histogram.getMean());
+        Assertions.assertEquals(1, histogram.getValueAtPercentile(0));
+        Assertions.assertEquals(100_000, histogram.getValueAtPercentile(100));
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = (long) Math.ceil(percentile / 100 * 100_000);
+            long value = histogram.getValueAtPercentile(percentile);
+            Assertions.assertTrue(value >= exact && value <= exact * 1.02, percentile + " => " + value);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+}
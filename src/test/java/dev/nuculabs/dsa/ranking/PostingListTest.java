@@ -0,0 +1,151 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.PostingList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PostingListTest {
+    @Test
+    public void test_cursor_next() {
+        // Setup
+        var postingList = new PostingList();
+        postingList.add(1, 3, 10);
+        postingList.add(7, 1, 5);
+        postingList.add(300, 2, 20);
+
+        // Test
+        var cursor = postingList.cursor();
+        List<Integer> documents = new ArrayList<>();
+        List<Integer> termFrequencies = new ArrayList<>();
+        while (cursor.next() != PostingList.NO_MORE_DOCUMENTS) {
+            documents.add(cursor.document());
+            termFrequencies.add(cursor.termFrequency());
+        }
+
+        // Assert
+        Assertions.assertEquals(List.of(1, 7, 300), documents);
+        Assertions.assertEquals(List.of(3, 1, 2), termFrequencies);
+        Assertions.assertEquals(3, postingList.size());
+        Assertions.assertEquals(3, postingList.getMaxTermFrequency());
+        Assertions.assertEquals(5, postingList.getMinDocumentLength());
+    }
+
+    @Test
+    public void test_cursor_advance() {
+        // Setup
+        var postingList = new PostingList();
+        for (int document = 0; document < 10_000; document += 3) {
+            postingList.add(document, document % 7 + 1, 10);
+        }
+
+        // Test
+        var cursor = postingList.cursor();
+
+        // Assert
+        Assertions.assertEquals(0, cursor.advance(0));
+        Assertions.assertEquals(3, cursor.advance(2));
+        Assertions.assertEquals(3, cursor.advance(3));
+        Assertions.assertEquals(5001, cursor.advance(4999));
+        Assertions.assertEquals(5001 % 7 + 1, cursor.termFrequency());
+        Assertions.assertEquals(5004, cursor.next());
+        Assertions.assertEquals(9999, cursor.advance(9998));
+        Assertions.assertEquals(PostingList.NO_MORE_DOCUMENTS, cursor.advance(10_000));
+    }
+
+    @Test
+    public void test_cursor_seesOnlyPostingsAddedBeforeIt() {
+        // Setup
+        var postingList = new PostingList();
+        postingList.add(1, 1, 1);
+        var cursor = postingList.cursor();
+
+        // Test
+        postingList.add(2, 1, 1);
+
+        // Assert
+        Assertions.assertEquals(1, cursor.next());
+        Assertions.assertEquals(PostingList.NO_MORE_DOCUMENTS, cursor.next());
+    }
+
+    @Test
+    public void test_add_decreasingDocument() {
+        // Setup
+        var postingList = new PostingList();
+        postingList.add(5, 1, 1);
+
+        // Test
+        Assertions.assertThrows(IllegalArgumentException.class, () -> postingList.add(5, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> postingList.add(2, 1, 1));
+    }
+
+    @Test
+    public void test_getSizeInBytes() {
+        // Setup
+        var postingList = new PostingList();
+        for (int document = 0; document < 1000; document++) {
+            postingList.add(document, 1, 10);
+        }
+
+        // Assert: one byte for the delta and one for the frequency, plus 7 skip entries.
+        Assertions.assertEquals(2000 + 7 * 8, postingList.getSizeInBytes());
+    }
+
+    @Test
+    public void test_cursor_positions() {
+        // Setup
+        var postingList = new PostingList(true);
+        for (int document = 0; document < 1000; document++) {
+            postingList.add(document, new int[]{document % 5, document % 5 + 3, 200 + document}, document % 3 + 1, 500);
+        }
+
+        // Test
+        var cursor = postingList.cursor();
+
+        // Assert
+        Assertions.assertEquals(0, cursor.next());
+        Assertions.assertArrayEquals(new int[]{0}, Arrays.copyOf(cursor.positions(), cursor.termFrequency()));
+        Assertions.assertEquals(5, cursor.advance(5));
+        Assertions.assertArrayEquals(new int[]{0, 3, 205}, Arrays.copyOf(cursor.positions(), cursor.termFrequency()));
+        // Skips whole blocks, then the positions of the postings it moved past inside the block.
+        Assertions.assertEquals(701, cursor.advance(701));
+        Assertions.assertArrayEquals(new int[]{1, 4, 901}, Arrays.copyOf(cursor.positions(), cursor.termFrequency()));
+        Assertions.assertEquals(702, cursor.next());
+        Assertions.assertArrayEquals(new int[]{2}, Arrays.copyOf(cursor.positions(), cursor.termFrequency()));
+    }
+
+    @Test
+    public void test_addAll_copiesPositions() {
+        // Setup
+        var first = new PostingList(true);
+        first.add(1, new int[]{4, 9}, 2, 10);
+        var second = new PostingList(true);
+        second.add(3, new int[]{0}, 1, 10);
+
+        // Test
+        first.addAll(second);
+        var cursor = first.cursor();
+
+        // Assert
+        Assertions.assertEquals(1, cursor.next());
+        Assertions.assertEquals(3, cursor.next());
+        Assertions.assertEquals(0, cursor.positions()[0]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> first.addAll(new PostingList()));
+    }
+
+    @Test
+    public void test_add_invalidPositions() {
+        // Setup
+        var positional = new PostingList(true);
+        var nonPositional = new PostingList();
+
+        // Test
+        Assertions.assertThrows(IllegalStateException.class, () -> positional.add(1, 1, 1));
+        Assertions.assertThrows(IllegalStateException.class, () -> nonPositional.add(1, new int[]{0}, 1, 1));
+        Assertions.assertThrows(IllegalStateException.class, () -> nonPositional.cursor().positions());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> positional.add(1, new int[]{3, 3}, 2, 5));
+    }
+}
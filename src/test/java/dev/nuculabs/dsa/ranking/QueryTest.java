@@ -0,0 +1,125 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.Pair;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QueryTest {
+    private static List<Document> documents() {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            String text = "document " + i + (i % 2 == 0 ? " about linked lists" : " lists linked together")
+                    + " list".repeat(i % 4) + (i % 3 == 0 ? " complexity" : "");
+            documents.add(new Document(i, text));
+        }
+        return documents;
+    }
+
+    private static Bm25Plus index() {
+        Bm25Plus bm25Plus = new Bm25Plus();
+        bm25Plus.indexAll(documents().toArray(Document[]::new));
+        return bm25Plus;
+    }
+
+    private static List<Integer> documentIds(List<Pair<Double, Document>> results) {
+        return results.stream().map(result -> result.second().documentId()).toList();
+    }
+
+    @Test
+    public void test_shouldQueryRanksLikeTopK() {
+        // Given
+        Bm25Plus bm25Plus = index();
+
+        // When
+        Query query = BooleanQuery.builder()
+                .should(Query.term("List"))
+                .should(Query.term("complexity"))
+                .should(Query.term("linked"))
+                .build();
+
+        // Then
+        Assertions.assertEquals(bm25Plus.topK(25, "List", "complexity", "linked"), bm25Plus.search(query, 25));
+        Assertions.assertEquals(bm25Plus.topK(10, "list"), bm25Plus.search(Query.term("LIST"), 10));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.search(Query.term("batman"), 10));
+    }
+
+    @Test
+    public void test_phraseQuery() {
+        // Given
+        Bm25Plus bm25Plus = index();
+        bm25Plus.index(new Document(1000, "lists about linked lists, linked lists"));
+
+        // When
+        var results = bm25Plus.search(Query.phrase("linked", "lists"), 1000);
+
+        // Then
+        Assertions.assertEquals(301, results.size());
+        Assertions.assertEquals(1000, results.get(0).second().documentId());
+        Assertions.assertTrue(documentIds(results).stream().allMatch(id -> id == 1000 || id % 2 == 0));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.search(Query.phrase("lists", "about"), 10).stream()
+                .filter(result -> result.second().documentId() != 1000).toList());
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.search(Query.phrase("linked", "batman"), 10));
+    }
+
+    @Test
+    public void test_booleanQuery() {
+        // Given
+        Bm25Plus bm25Plus = index();
+
+        // When
+        Query query = BooleanQuery.builder()
+                .must(Query.term("complexity"))
+                .must(Query.phrase("lists", "linked"))
+                .should(Query.term("list"))
+                .mustNot(Query.term("9"))
+                .build();
+        var results = bm25Plus.search(query, 1000);
+
+        // Then: the odd multiples of 3, except 9.
+        Assertions.assertEquals(99, results.size());
+        Assertions.assertTrue(documentIds(results).stream().allMatch(id -> id % 6 == 3 && id != 9));
+        // Every match has the same must clauses, so the should clause ranks them: 3 times "list" ranks first.
+        Assertions.assertEquals(3, results.get(0).second().documentId() % 4);
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.search(BooleanQuery.builder().mustNot(Query.term("list")).build(), 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bm25Plus.search(query, 0));
+    }
+
+    @Test
+    public void test_searchSegmentConcurrentAndShardedIndexes(@TempDir Path directory) throws IOException {
+        // Given
+        Bm25Plus bm25Plus = index();
+        bm25Plus.delete(0);
+        ConcurrentBm25Plus concurrent = new ConcurrentBm25Plus();
+        ShardedBm25Plus sharded = new ShardedBm25Plus(3);
+        for (Document document : documents().subList(1, 600)) {
+            concurrent.index(document);
+            sharded.index(document);
+        }
+        concurrent.refresh();
+        bm25Plus.writeSegment(directory);
+
+        // When
+        Query query = BooleanQuery.builder()
+                .must(Query.phrase("linked", "lists"))
+                .should(Query.term("complexity"))
+                .mustNot(Query.term("42"))
+                .build();
+        var expected = bm25Plus.search(query, 30);
+
+        // Then
+        Assertions.assertEquals(30, expected.size());
+        try (Bm25Segment segment = Bm25Segment.open(directory)) {
+            Assertions.assertEquals(expected, segment.search(query, 30));
+        }
+        Assertions.assertEquals(expected, concurrent.search(query, 30));
+        Assertions.assertEquals(expected, sharded.search(query, 30));
+    }
+}
@@ -0,0 +1,75 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Bm25Plus;
+import dev.nuculabs.dsa.ranking.bm25.Document;
+import dev.nuculabs.dsa.ranking.bm25.ShardedBm25Plus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ShardedBm25PlusTest {
+    private static Document[] documents(int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 7) + (i % 3 == 0 ? " complexity" : "") + (i == 42 ? " rare" : "")));
+        }
+        return documents.toArray(Document[]::new);
+    }
+
+    @Test
+    public void test_queries() {
+        // Given
+        Document[] documents = documents(2000);
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents);
+
+        // When
+        ShardedBm25Plus bm25Plus = new ShardedBm25Plus(4, new ForkJoinPool(4));
+        bm25Plus.indexAll(documents);
+        bm25Plus.index(documents[7]);
+
+        // Then
+        Assertions.assertEquals(2000, bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.termQuery("list"), bm25Plus.termQuery("list"));
+        Assertions.assertEquals(expected.termsQuery("linked", "list", "complexity"), bm25Plus.termsQuery("linked", "list", "complexity"));
+        // The term "rare" occurs in a single shard.
+        Assertions.assertEquals(expected.termsQuery("rare", "list"), bm25Plus.termsQuery("rare", "list"));
+        Assertions.assertEquals(expected.topK(25, "list", "complexity"), bm25Plus.topK(25, "list", "complexity"));
+        Assertions.assertEquals(expected.topK(5, "Rare", "List"), bm25Plus.topK(5, "Rare", "List"));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.termsQuery("list", "batman"));
+        Assertions.assertEquals(Collections.emptyList(), bm25Plus.topK(5, "list", "batman"));
+    }
+
+    @Test
+    public void test_delete_and_update() {
+        // Given
+        Document[] documents = documents(500);
+        ShardedBm25Plus bm25Plus = new ShardedBm25Plus(3);
+        bm25Plus.indexAll(documents);
+        Bm25Plus expected = new Bm25Plus();
+        expected.indexAll(documents);
+
+        // When
+        for (int i = 0; i < 500; i += 5) {
+            Assertions.assertTrue(bm25Plus.delete(i));
+            expected.delete(i);
+        }
+        bm25Plus.update(new Document(1, "updated list"));
+        expected.update(new Document(1, "updated list"));
+        bm25Plus.compact();
+
+        // Then
+        Assertions.assertEquals(expected.getIndexSize(), bm25Plus.getIndexSize());
+        Assertions.assertEquals(expected.topK(10, "list", "updated"), bm25Plus.topK(10, "list", "updated"));
+    }
+
+    @Test
+    public void test_invalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardedBm25Plus(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardedBm25Plus(2).topK(0, "list"));
+    }
+}
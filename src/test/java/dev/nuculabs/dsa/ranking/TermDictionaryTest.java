@@ -0,0 +1,55 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.TermDictionary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TermDictionaryTest {
+    @Test
+    public void test_getOrAdd() {
+        // Setup
+        var dictionary = new TermDictionary();
+
+        // Test
+        int ana = dictionary.getOrAdd("ana");
+        int mere = dictionary.getOrAdd("mere".toCharArray(), 4);
+
+        // Assert
+        Assertions.assertEquals(0, ana);
+        Assertions.assertEquals(1, mere);
+        Assertions.assertEquals(ana, dictionary.getOrAdd("ana".toCharArray(), 3));
+        Assertions.assertEquals(mere, dictionary.getOrAdd("mere"));
+        Assertions.assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void test_getOrAdd_usesOnlyTheGivenLength() {
+        // Setup
+        var dictionary = new TermDictionary();
+
+        // Test
+        int are = dictionary.getOrAdd("arexyz".toCharArray(), 3);
+
+        // Assert
+        Assertions.assertEquals("are", dictionary.getTerm(are));
+        Assertions.assertEquals(are, dictionary.get("are"));
+    }
+
+    @Test
+    public void test_get() {
+        // Setup
+        var dictionary = new TermDictionary();
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertEquals(i, dictionary.getOrAdd("term" + i));
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertEquals(i, dictionary.get("term" + i));
+            Assertions.assertEquals("term" + i, dictionary.getTerm(i));
+        }
+        Assertions.assertEquals(-1, dictionary.get("batman"));
+        Assertions.assertEquals(-1, dictionary.get(new StringBuilder("term10000")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> dictionary.getTerm(10_000));
+    }
+}
@@ -0,0 +1,55 @@
+package dev.nuculabs.dsa.ranking;
+
+import dev.nuculabs.dsa.ranking.bm25.Tokenizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TokenizerTest {
+    private static List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        new Tokenizer().tokenize(text, (buffer, length) -> tokens.add(new String(buffer, 0, length)));
+        return tokens;
+    }
+
+    @Test
+    public void test_tokenize() {
+        Assertions.assertEquals(List.of("ana", "are", "mere"), tokenize("Ana are mere"));
+        Assertions.assertEquals(List.of("the", "lists", "on"), tokenize("The list’s O(N)"));
+    }
+
+    @Test
+    public void test_tokenize_whitespace() {
+        Assertions.assertEquals(List.of("ana", "are", "mere", "si", "pere"), tokenize("  Ana\tare\nmere\r\n si pere  "));
+    }
+
+    @Test
+    public void test_tokenize_skipsTokensWithoutLettersOrDigits() {
+        Assertions.assertEquals(List.of("a", "b"), tokenize("a - b ... !"));
+        Assertions.assertEquals(List.of(), tokenize(""));
+    }
+
+    @Test
+    public void test_tokenize_longToken() {
+        // Given
+        var token = "x".repeat(1000);
+
+        // Then
+        Assertions.assertEquals(List.of(token, "y"), tokenize(token.toUpperCase() + " y"));
+    }
+
+    @Test
+    public void test_tokenize_charSequence() {
+        Assertions.assertEquals(List.of("ana", "are"), tokenize(new StringBuilder("ANA are")));
+    }
+
+    @Test
+    public void test_normalize() {
+        Assertions.assertEquals("hello", Tokenizer.normalize("Hello,"));
+        Assertions.assertEquals("c", Tokenizer.normalize("C++"));
+        Assertions.assertEquals("", Tokenizer.normalize("..."));
+        Assertions.assertEquals(tokenize("The list’s O(N)"), List.of(Tokenizer.normalize("The", "list’s", "O(N)")));
+    }
+}
@@ -0,0 +1,40 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class BatchScorerTest {
+    @Test
+    public void test_vectorizedScoresMatchScalarScores() {
+        // Setup: a length which leaves a tail that doesn't fill a whole vector.
+        int length = 1027;
+        Random random = new Random(42);
+        double[] termFrequencies = new double[length];
+        double[] lengthNormalizations = new double[length];
+        for (int i = 0; i < length; i++) {
+            termFrequencies[i] = 1 + random.nextInt(10);
+            lengthNormalizations[i] = 0.5 + random.nextDouble() * 3;
+        }
+        BatchScorer vectorScorer = BatchScorer.vectorized(1.6, 0.7).orElseThrow();
+        double[] scalarScores = new double[length];
+        double[] vectorScores = new double[length];
+
+        // Test
+        new ScalarBatchScorer(1.6, 0.7).score(0.42, termFrequencies, lengthNormalizations, scalarScores, length);
+        vectorScorer.score(0.42, termFrequencies, lengthNormalizations, vectorScores, length);
+
+        // Assert
+        Assertions.assertArrayEquals(scalarScores, vectorScores);
+    }
+
+    @Test
+    public void test_createPrefersTheVectorizedScorer() {
+        // Test
+        BatchScorer scorer = BatchScorer.create(1.6, 0.7);
+
+        // Assert: the tests run with the Vector API module and the vector classes.
+        Assertions.assertEquals("VectorBatchScorer", scorer.getClass().getSimpleName());
+    }
+}
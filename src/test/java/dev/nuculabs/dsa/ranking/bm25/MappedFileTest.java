@@ -0,0 +1,63 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedFileTest {
+    @Test
+    public void test_readAcrossPages(@TempDir Path directory) throws IOException {
+        // Setup: 100 bytes mapped in pages of 16 bytes.
+        Path path = directory.resolve("file");
+        ByteBuffer content = ByteBuffer.allocate(100);
+        for (int i = 0; i < content.capacity(); i++) {
+            content.put(i, (byte) i);
+        }
+        Files.write(path, content.array());
+
+        try (MappedFile file = new MappedFile(path, 16)) {
+            // Test
+            byte[] range = new byte[40];
+            file.get(10, range);
+
+            // Assert
+            Assertions.assertEquals(100L, file.size());
+            Assertions.assertEquals((byte) 99, file.get(99));
+            Assertions.assertEquals(content.getInt(4), file.getInt(4));
+            Assertions.assertEquals(content.getInt(14), file.getInt(14));
+            Assertions.assertEquals(content.getLong(28), file.getLong(28));
+            for (int i = 0; i < range.length; i++) {
+                Assertions.assertEquals((byte) (10 + i), range[i]);
+            }
+            Assertions.assertEquals(content.slice(20, 8), file.slice(20, 8));
+            Assertions.assertEquals(content.slice(30, 50), file.slice(30, 50));
+            Assertions.assertEquals(0, file.slice(100, 0).remaining());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> file.get(100));
+        }
+    }
+
+    @Test
+    public void test_segmentAcrossPages(@TempDir Path directory) throws IOException {
+        // Setup: pages much smaller than the posting lists and the documents, so most of them straddle two pages.
+        Bm25Plus bm25Plus = new Bm25Plus();
+        for (int i = 0; i < 2000; i++) {
+            bm25Plus.index(new Document(i, "document " + i + " about linked lists" + " list".repeat(i % 5) + (i % 3 == 0 ? " complexity" : "")));
+        }
+        bm25Plus.writeSegment(directory);
+
+        // Test
+        try (Bm25Segment segment = Bm25Segment.open(directory, 64)) {
+            // Assert
+            Assertions.assertEquals(bm25Plus.getIndexSize(), segment.getIndexSize());
+            Assertions.assertEquals(bm25Plus.termQuery("list"), segment.termQuery("list"));
+            Assertions.assertEquals(bm25Plus.termsQuery("linked", "list", "complexity"), segment.termsQuery("linked", "list", "complexity"));
+            Assertions.assertEquals(bm25Plus.topK(10, "list", "complexity", "1999"), segment.topK(10, "list", "complexity", "1999"));
+            Assertions.assertEquals(bm25Plus.search(Query.phrase("linked", "lists"), 5), segment.search(Query.phrase("linked", "lists"), 5));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dev.nuculabs.dsa.ranking.bm25;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorBatchScorer computes the RSVs of as many postings at once as the widest SIMD registers of the CPU hold.
+ * <p>
+ * It needs the incubating jdk.incubator.vector module, which is only loaded when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, so it lives in its own source set and {@link BatchScorer#create} loads
+ * it by name. The postings which don't fill a whole vector are scored one at a time.
+ */
+class VectorBatchScorer implements BatchScorer {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final double k1;
+    private final double delta;
+
+    VectorBatchScorer(double k1, double delta) {
+        this.k1 = k1;
+        this.delta = delta;
+    }
+
+    @Override
+    public void score(double inverseDocumentFrequencyLog, double[] termFrequencies, double[] lengthNormalizations, double[] scores, int length) {
+        double k1PlusOne = k1 + 1;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector termFrequency = DoubleVector.fromArray(SPECIES, termFrequencies, i);
+            DoubleVector lengthNormalization = DoubleVector.fromArray(SPECIES, lengthNormalizations, i);
+            termFrequency.mul(k1PlusOne)
+                    .div(lengthNormalization.add(termFrequency))
+                    .add(delta)
+                    .mul(inverseDocumentFrequencyLog)
+                    .intoArray(scores, i);
+        }
+        for (; i < length; i++) {
+            double termFrequency = termFrequencies[i];
+            scores[i] = inverseDocumentFrequencyLog * ((k1PlusOne * termFrequency) / (lengthNormalizations[i] + termFrequency) + delta);
+        }
+    }
+}